@@ -26,10 +26,19 @@ create table `users` (
     `due_date` date default null,
     `user_id` int not null,
     `task_status` boolean default false,
+    `change_seq` bigint not null default 0,
     primary key (`id`),
 
     key FK_TASK_idx (`id`),
 
+    -- Keyset pagination of a user's tasks ordered by (due_date, id),
+    -- with and without a status filter
+    key `TASK_USER_STATUS_DUE_idx` (`user_id`, `task_status`, `due_date`, `id`),
+    key `TASK_USER_DUE_idx` (`user_id`, `due_date`, `id`),
+
+    -- Delta sync: a user's tasks changed since a change sequence number
+    key `TASK_USER_CHANGE_idx` (`user_id`, `change_seq`),
+
     constraint `FK_TASK`
     foreign key (`user_id`)
     references `users`(`id`)
@@ -76,6 +85,46 @@ create table `users` (
 
     set FOREIGN_KEY_CHECKS = 1;
 
+    -- Deleted tasks, kept for the delta sync API until the retention job purges them
+    drop table if exists `task_tombstone`;
+
+    create table `task_tombstone` (
+    `task_id` int not null,
+    `user_id` int not null,
+    `deleted_at` datetime(6) not null,
+    `change_seq` bigint not null,
+    primary key (`task_id`),
+    key `TASK_TOMBSTONE_USER_CHANGE_idx` (`user_id`, `change_seq`),
+    key `TASK_TOMBSTONE_DELETED_idx` (`deleted_at`)
+    ) engine=innodb default charset=latin1;
+
+    -- Each user's pending, completed and overdue task counts, kept up to date by the
+    -- application and recounted every night, and the last change sequence number
+    -- stamped on the user's tasks and tombstones for the delta sync API
+    drop table if exists `user_task_stats`;
+
+    create table `user_task_stats` (
+    `user_id` int not null,
+    `pending_count` bigint not null default 0,
+    `completed_count` bigint not null default 0,
+    `overdue_count` bigint not null default 0,
+    `change_seq` bigint not null default 0,
+    primary key (`user_id`),
+    constraint `FK_USER_TASK_STATS_USER` foreign key (`user_id`)
+    references `users`(`id`)
+    on delete cascade on update no action
+    ) engine=innodb default charset=latin1;
+
+    -- Task and user ids are allocated by the application in blocks from this table;
+    -- next_val is the first id of the next block to hand out
+    drop table if exists `id_sequences`;
+
+    create table `id_sequences` (
+    `sequence_name` varchar(64) not null,
+    `next_val` bigint not null,
+    primary key (`sequence_name`)
+    ) engine=innodb default charset=latin1;
+
     -- Create a new admin user
     -- Default password is password (password is hashed)
     insert into `users` (username, first_name, last_name, email, password, enabled)
@@ -106,6 +155,17 @@ create table `users` (
         insert into `user_roles` (user_id, role_id)
         values (@user_id, @role_id);
 
+    -- Start the task counts of the users created above at zero
+    insert into `user_task_stats` (user_id)
+    select `id` from `users`;
+
+    -- Start the id sequences after the rows created above
+    insert into `id_sequences` (sequence_name, next_val)
+    select 'task', coalesce(max(`id`), 0) + 1 from `task`;
+
+    insert into `id_sequences` (sequence_name, next_val)
+    select 'users', coalesce(max(`id`), 0) + 1 from `users`;
+
 
 
 
@@ -0,0 +1,8 @@
+-- Adds the indexes used by the keyset-paginated task listings
+-- to a database created before they were part of createDB.sql.
+
+use `task_manager`;
+
+alter table `task`
+    add key `TASK_USER_STATUS_DUE_idx` (`user_id`, `task_status`, `due_date`, `id`),
+    add key `TASK_USER_DUE_idx` (`user_id`, `due_date`, `id`);
@@ -0,0 +1,17 @@
+-- Adds the id_sequences table that Hibernate allocates task and user ids from,
+-- starting each sequence after the highest id already in use.
+-- Run this while the application is stopped.
+
+use `task_manager`;
+
+create table `id_sequences` (
+    `sequence_name` varchar(64) not null,
+    `next_val` bigint not null,
+    primary key (`sequence_name`)
+) engine=innodb default charset=latin1;
+
+insert into `id_sequences` (sequence_name, next_val)
+select 'task', coalesce(max(`id`), 0) + 1 from `task`;
+
+insert into `id_sequences` (sequence_name, next_val)
+select 'users', coalesce(max(`id`), 0) + 1 from `users`;
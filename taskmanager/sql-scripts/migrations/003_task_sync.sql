@@ -0,0 +1,18 @@
+-- Adds the change tracking used by the delta sync API: an updated_at column on
+-- task with an index per user, and the task_tombstone table recording deletions.
+-- Existing tasks are stamped with the time of the migration.
+
+use `task_manager`;
+
+alter table `task`
+    add column `updated_at` datetime(6) not null default current_timestamp(6),
+    add key `TASK_USER_UPDATED_idx` (`user_id`, `updated_at`);
+
+create table `task_tombstone` (
+    `task_id` int not null,
+    `user_id` int not null,
+    `deleted_at` datetime(6) not null,
+    primary key (`task_id`),
+    key `TASK_TOMBSTONE_USER_DELETED_idx` (`user_id`, `deleted_at`),
+    key `TASK_TOMBSTONE_DELETED_idx` (`deleted_at`)
+) engine=innodb default charset=latin1;
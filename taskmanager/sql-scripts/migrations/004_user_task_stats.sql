@@ -0,0 +1,25 @@
+-- Adds the user_task_stats table holding each user's pending, completed and
+-- overdue task counts, and fills it from the existing tasks. The application
+-- keeps the counts up to date and recounts them every night and at startup.
+
+use `task_manager`;
+
+create table `user_task_stats` (
+    `user_id` int not null,
+    `pending_count` bigint not null default 0,
+    `completed_count` bigint not null default 0,
+    `overdue_count` bigint not null default 0,
+    primary key (`user_id`),
+    constraint `FK_USER_TASK_STATS_USER` foreign key (`user_id`)
+    references `users`(`id`)
+    on delete cascade on update no action
+) engine=innodb default charset=latin1;
+
+insert into `user_task_stats` (user_id, pending_count, completed_count, overdue_count)
+select u.`id`,
+       coalesce(sum(t.`id` is not null and t.`task_status` = false), 0),
+       coalesce(sum(t.`task_status` = true), 0),
+       coalesce(sum(t.`task_status` = false and t.`due_date` < curdate()), 0)
+from `users` u
+left join `task` t on t.`user_id` = u.`id`
+group by u.`id`;
@@ -0,0 +1,21 @@
+-- Replaces the updated_at timestamps used by the delta sync API with change
+-- sequence numbers drawn from the task_change row of id_sequences, which become
+-- visible in the order they were drawn. Existing tasks and tombstones all get
+-- number 1; sync tokens issued before this migration are rejected, so clients
+-- sync again from scratch.
+
+use `task_manager`;
+
+alter table `task`
+    add column `change_seq` bigint not null default 1,
+    drop key `TASK_USER_UPDATED_idx`,
+    drop column `updated_at`,
+    add key `TASK_USER_CHANGE_idx` (`user_id`, `change_seq`);
+
+alter table `task_tombstone`
+    add column `change_seq` bigint not null default 1,
+    drop key `TASK_TOMBSTONE_USER_DELETED_idx`,
+    add key `TASK_TOMBSTONE_USER_CHANGE_idx` (`user_id`, `change_seq`);
+
+insert into `id_sequences` (sequence_name, next_val)
+values ('task_change', 2);
@@ -0,0 +1,25 @@
+-- Moves the change sequence of the delta sync API from the single task_change
+-- row of id_sequences, which every task write had to lock, to a change_seq
+-- column on each user's user_task_stats row, so writes to different users'
+-- tasks no longer wait for each other. Every user's sequence continues from the
+-- last number the shared sequence handed out, so sync tokens issued before this
+-- migration stay valid.
+
+use `task_manager`;
+
+set @last_change_seq = (select coalesce(max(`next_val`), 1) - 1
+                        from `id_sequences` where `sequence_name` = 'task_change');
+
+alter table `user_task_stats`
+    add column `change_seq` bigint not null default 0;
+
+update `user_task_stats` set `change_seq` = @last_change_seq;
+
+-- Users without counts yet get a row holding their sequence; the counts are
+-- recounted when the application starts
+insert into `user_task_stats` (user_id, change_seq)
+select u.`id`, @last_change_seq
+from `users` u
+where not exists (select 1 from `user_task_stats` s where s.`user_id` = u.`id`);
+
+delete from `id_sequences` where `sequence_name` = 'task_change';
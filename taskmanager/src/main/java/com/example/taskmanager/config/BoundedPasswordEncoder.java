@@ -0,0 +1,239 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A PasswordEncoder that runs another encoder's hashing on a dedicated, bounded thread pool.
+ *
+ * Password hashing is deliberately slow and CPU bound. Running it on a pool with one thread per core
+ * and a bounded queue keeps a burst of logins or registrations from taking every core away from other
+ * requests. When the queue is full the caller is rejected straight away with a
+ * {@link PasswordHashingRejectedException} instead of waiting. Callers that should not block on the
+ * hash can use {@link #supplyAsync} instead, and bulk jobs can hash many passwords on the same pool with
+ * {@link #encodeAll}.
+ *
+ * The pool's queue depth and activity are published as the executor.* metrics tagged
+ * name=password.hashing, the time each operation takes including queueing as the password.hashing timer,
+ * and the number of rejected operations as the password.hashing.rejected counter.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+	private static final String METRIC_NAME = "password.hashing";
+
+	private final PasswordEncoder delegate;
+	private final ThreadPoolExecutor executor;
+	private final int queueCapacity;
+	private final Timer encodeTimer;
+	private final Timer matchesTimer;
+	private final Timer asyncTimer;
+	private final Counter rejectedCounter;
+
+	/**
+	 * Constructs a BoundedPasswordEncoder.
+	 *
+	 * @param delegate the encoder that does the hashing
+	 * @param threads the number of hashing threads, normally the number of cores
+	 * @param queueCapacity the number of operations that may wait for a thread before callers are rejected
+	 * @param meterRegistry the registry the pool and timing metrics are published to
+	 */
+	public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.queueCapacity = queueCapacity;
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+
+		new ExecutorServiceMetrics(executor, METRIC_NAME, Tags.empty()).bindTo(meterRegistry);
+		this.encodeTimer = Timer.builder(METRIC_NAME).tag("operation", "encode").register(meterRegistry);
+		this.matchesTimer = Timer.builder(METRIC_NAME).tag("operation", "matches").register(meterRegistry);
+		this.asyncTimer = Timer.builder(METRIC_NAME).tag("operation", "async").register(meterRegistry);
+		this.rejectedCounter = Counter.builder(METRIC_NAME + ".rejected").register(meterRegistry);
+	}
+
+	/**
+	 * Hashes a raw password on the hashing pool.
+	 *
+	 * @param rawPassword the password to hash
+	 * @return the hash produced by the delegate encoder
+	 * @throws PasswordHashingRejectedException if the hashing pool is full
+	 */
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return run(encodeTimer, () -> delegate.encode(rawPassword));
+	}
+
+	/**
+	 * Checks a raw password against a stored hash on the hashing pool.
+	 *
+	 * @param rawPassword the password to check
+	 * @param encodedPassword the stored hash
+	 * @return true if the password matches the hash
+	 * @throws PasswordHashingRejectedException if the hashing pool is full
+	 */
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	/**
+	 * Runs an operation against the underlying encoder on the hashing pool without waiting for it. This
+	 * lets a caller run several hashing steps, such as a check and an encode, as a single queued job.
+	 *
+	 * @param operation the operation to run, given the underlying encoder
+	 * @return a future completed with the result of the operation
+	 * @throws PasswordHashingRejectedException if the hashing pool is full
+	 */
+	public <T> CompletableFuture<T> supplyAsync(Function<PasswordEncoder, T> operation) {
+		Timer.Sample sample = Timer.start();
+
+		try {
+			return CompletableFuture.supplyAsync(() -> operation.apply(delegate), executor)
+					.whenComplete((result, e) -> sample.stop(asyncTimer));
+		}
+		catch (RejectedExecutionException e) {
+			throw rejected(e);
+		}
+	}
+
+	/**
+	 * Hashes many passwords in parallel on the hashing pool. The passwords are queued in batches no larger
+	 * than the pool's queue, and each batch is waited for before the next is queued, so a bulk job shares
+	 * the pool with other callers rather than filling its queue.
+	 *
+	 * @param rawPasswords the passwords to hash
+	 * @return the hashes, in the same order as the passwords
+	 * @throws PasswordHashingRejectedException if the hashing pool is full
+	 */
+	public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+		List<String> encodedPasswords = new ArrayList<>(rawPasswords.size());
+
+		for (int start = 0; start < rawPasswords.size(); start += queueCapacity) {
+			List<? extends CharSequence> batch = rawPasswords.subList(start, Math.min(start + queueCapacity, rawPasswords.size()));
+			List<Future<String>> futures = new ArrayList<>(batch.size());
+
+			try {
+				for (CharSequence rawPassword : batch) {
+					futures.add(executor.submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword))));
+				}
+				for (Future<String> future : futures) {
+					encodedPasswords.add(await(future));
+				}
+			}
+			catch (RejectedExecutionException e) {
+				throw rejected(e);
+			}
+			finally {
+				// Drop whatever is still queued if the batch was rejected or failed part way
+				futures.forEach(future -> future.cancel(false));
+			}
+		}
+		return encodedPasswords;
+	}
+
+	/**
+	 * Determines whether a stored hash should be re-hashed. This only inspects the hash, so it runs on
+	 * the calling thread.
+	 *
+	 * @param encodedPassword the stored hash
+	 * @return true if the hash should be upgraded
+	 */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * Stops the hashing pool when the application shuts down.
+	 */
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Runs an operation on the hashing pool and waits for its result, recording how long it took.
+	 *
+	 * @param timer the timer to record the operation in
+	 * @param operation the operation to run
+	 * @return the result of the operation
+	 * @throws PasswordHashingRejectedException if the hashing pool is full
+	 */
+	private <T> T run(Timer timer, Callable<T> operation) {
+		Timer.Sample sample = Timer.start();
+		Future<T> future;
+
+		try {
+			future = executor.submit(operation);
+		}
+		catch (RejectedExecutionException e) {
+			throw rejected(e);
+		}
+
+		try {
+			return await(future);
+		}
+		finally {
+			sample.stop(timer);
+		}
+	}
+
+	/**
+	 * Waits for an operation queued on the hashing pool, rethrowing whatever it failed with.
+	 *
+	 * @param future the queued operation
+	 * @return the result of the operation
+	 */
+	private <T> T await(Future<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Password hashing failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Counts a rejected operation and builds the exception reported to the caller.
+	 *
+	 * @param cause the rejection reported by the hashing pool
+	 * @return the exception to throw
+	 */
+	private PasswordHashingRejectedException rejected(RejectedExecutionException cause) {
+		rejectedCounter.increment();
+		return new PasswordHashingRejectedException("Password hashing queue is full", cause);
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A BCryptPasswordEncoder whose work factor is chosen at startup to suit the hardware it runs on.
+ *
+ * {@link #calibrate} times a verification at increasing work factors and picks the highest one that
+ * stays within a target time, but never below {@link #MIN_STRENGTH}. Stored hashes made with a lower
+ * work factor are reported by {@link #upgradeEncoding}, so they are re-hashed with the calibrated one
+ * the next time their owner logs in. Hashes made with a higher work factor are kept: calibration
+ * timings vary from one start to the next, and bringing hashes down would re-hash them back and forth
+ * across restarts, as well as weaken them.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+	/**
+	 * The lowest work factor ever used, whatever the calibration measures.
+	 */
+	public static final int MIN_STRENGTH = 10;
+
+	/**
+	 * The highest work factor calibration will try.
+	 */
+	public static final int MAX_STRENGTH = 16;
+
+	private static final Logger logger = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+
+	private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+	private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+	private final int strength;
+
+	/**
+	 * Constructs an encoder that hashes with the given work factor.
+	 *
+	 * @param strength the BCrypt work factor, between 4 and 31
+	 */
+	public CalibratedBCryptPasswordEncoder(int strength) {
+		super(strength);
+		this.strength = strength;
+	}
+
+	/**
+	 * Measures how long a verification takes at increasing work factors and builds an encoder with the
+	 * highest work factor, between {@link #MIN_STRENGTH} and {@link #MAX_STRENGTH}, whose verification
+	 * takes no longer than the target. The result is logged and published as the
+	 * password.hashing.bcrypt.strength and password.hashing.bcrypt.verification.time gauges.
+	 *
+	 * @param targetMillis the longest a single verification should take, in milliseconds
+	 * @param meterRegistry the registry the calibration result is published to
+	 * @return an encoder using the calibrated work factor
+	 */
+	public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, MeterRegistry meterRegistry) {
+		// Warm up the JIT so the first measurement is not inflated
+		measureVerificationMillis(MIN_STRENGTH);
+
+		int strength = MIN_STRENGTH;
+		long millis = measureVerificationMillis(MIN_STRENGTH);
+
+		while (strength < MAX_STRENGTH) {
+			long nextMillis = measureVerificationMillis(strength + 1);
+			if (nextMillis > targetMillis) {
+				break;
+			}
+			strength++;
+			millis = nextMillis;
+		}
+
+		if (millis > targetMillis) {
+			logger.warn("BCrypt verification takes {} ms at the minimum work factor {}, over the {} ms target",
+					millis, strength, targetMillis);
+		}
+		else {
+			logger.info("Calibrated BCrypt work factor {}: verification takes {} ms (target {} ms)",
+					strength, millis, targetMillis);
+		}
+
+		CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(strength);
+		long calibratedMillis = millis;
+
+		Gauge.builder("password.hashing.bcrypt.strength", encoder, CalibratedBCryptPasswordEncoder::getStrength)
+				.register(meterRegistry);
+		Gauge.builder("password.hashing.bcrypt.verification.time", () -> calibratedMillis)
+				.baseUnit("milliseconds")
+				.register(meterRegistry);
+
+		return encoder;
+	}
+
+	/**
+	 * Returns the work factor this encoder hashes with.
+	 *
+	 * @return the BCrypt work factor
+	 */
+	public int getStrength() {
+		return strength;
+	}
+
+	/**
+	 * Determines whether a stored hash was made with a lower work factor than this encoder's, and so
+	 * should be re-hashed.
+	 *
+	 * @param encodedPassword the stored hash
+	 * @return true if the hash is a BCrypt hash with a lower work factor
+	 */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		if (encodedPassword == null) {
+			return false;
+		}
+
+		Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+		return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+	}
+
+	/**
+	 * Hashes a password and checks it against its hash at the given work factor, which is what a login
+	 * does, and returns how long the check took.
+	 *
+	 * @param strength the work factor to measure
+	 * @return the time the verification took, in milliseconds
+	 */
+	private static long measureVerificationMillis(int strength) {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+		String hash = encoder.encode(CALIBRATION_PASSWORD);
+
+		long start = System.nanoTime();
+		encoder.matches(CALIBRATION_PASSWORD, hash);
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+}
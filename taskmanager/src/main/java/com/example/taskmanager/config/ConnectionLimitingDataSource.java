@@ -0,0 +1,164 @@
+package com.example.taskmanager.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A DataSource that lets only a fixed number of threads hold a connection at once, fewer than the pool
+ * behind it has connections.
+ *
+ * With virtual threads there is no longer a fixed number of request threads, so thousands of requests
+ * may ask the connection pool for a connection at the same moment. This class makes them wait on a fair
+ * semaphore first, so the pool only ever sees as many callers as it can serve, and gives up with the
+ * pool's own connection timeout. A permit is returned when the connection is closed.
+ *
+ * A thread that already holds a permit gets any further connection straight from the pool. Such a
+ * connection serves work the thread's first connection is waiting for, such as Hibernate allocating a
+ * block of IDs in a transaction of its own, so making it wait for a permit could deadlock once every
+ * permit is held by threads doing the same. The connections the pool has beyond the permits are left
+ * for this work. Connections are expected to be closed by the thread that obtained them.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+	private final Semaphore permits;
+	private final long timeoutMillis;
+
+	/**
+	 * Set while the current thread holds a permit.
+	 */
+	private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>();
+
+	/**
+	 * Constructs a ConnectionLimitingDataSource.
+	 *
+	 * @param targetDataSource the pooled DataSource to limit access to
+	 * @param maxConnections the number of threads that may hold a connection at once, less than the pool size
+	 * @param timeoutMillis how long to wait for a permit before failing, in milliseconds
+	 */
+	public ConnectionLimitingDataSource(DataSource targetDataSource, int maxConnections, long timeoutMillis) {
+		super(targetDataSource);
+		this.permits = new Semaphore(maxConnections, true);
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Waits for a permit and then obtains a connection from the pool, unless the current thread already
+	 * holds a permit.
+	 *
+	 * @return a connection that returns its permit when closed
+	 * @throws SQLTransientConnectionException if no permit became free within the timeout
+	 * @throws SQLException if the pool fails to provide a connection
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (Boolean.TRUE.equals(holdsPermit.get())) {
+			return obtainTargetDataSource().getConnection();
+		}
+
+		acquirePermit();
+		try {
+			return releasingOnClose(obtainTargetDataSource().getConnection());
+		}
+		catch (SQLException | RuntimeException e) {
+			releasePermit();
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for a permit and then obtains a connection from the pool with the given credentials, unless
+	 * the current thread already holds a permit.
+	 *
+	 * @param username the database user
+	 * @param password the user's password
+	 * @return a connection that returns its permit when closed
+	 * @throws SQLTransientConnectionException if no permit became free within the timeout
+	 * @throws SQLException if the pool fails to provide a connection
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		if (Boolean.TRUE.equals(holdsPermit.get())) {
+			return obtainTargetDataSource().getConnection(username, password);
+		}
+
+		acquirePermit();
+		try {
+			return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+		}
+		catch (SQLException | RuntimeException e) {
+			releasePermit();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of threads currently waiting for a permit.
+	 *
+	 * @return the number of waiting threads
+	 */
+	public int getWaitingThreads() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * Waits up to the timeout for a permit, and marks the current thread as holding it.
+	 *
+	 * @throws SQLTransientConnectionException if no permit became free within the timeout, or the thread
+	 *         was interrupted while waiting
+	 */
+	private void acquirePermit() throws SQLTransientConnectionException {
+		try {
+			if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException(
+						"Timed out after " + timeoutMillis + " ms waiting for a database connection");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+		}
+		holdsPermit.set(Boolean.TRUE);
+	}
+
+	/**
+	 * Returns a permit, and clears the current thread's mark of holding it.
+	 */
+	private void releasePermit() {
+		holdsPermit.remove();
+		permits.release();
+	}
+
+	/**
+	 * Wraps a connection so that closing it returns its permit, once.
+	 *
+	 * @param connection the connection obtained from the pool
+	 * @return the wrapped connection
+	 */
+	private Connection releasingOnClose(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+				(proxy, method, args) -> {
+					try {
+						return method.invoke(connection, args);
+					}
+					catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+					finally {
+						if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+							releasePermit();
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.taskmanager.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a password can not be hashed or checked because the hashing pool and its queue are full.
+ *
+ * Requests that fail this way are answered with 503 Service Unavailable rather than waiting for the
+ * pool, so clients can retry once the burst has passed. It extends
+ * {@link InternalAuthenticationServiceException} so that a rejected login is not mistaken for bad
+ * credentials.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many password checks in progress, please try again.")
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+
+	/**
+	 * Constructs a PasswordHashingRejectedException with the given message and cause.
+	 *
+	 * @param message the detail message
+	 * @param cause the rejection reported by the hashing pool
+	 */
+	public PasswordHashingRejectedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
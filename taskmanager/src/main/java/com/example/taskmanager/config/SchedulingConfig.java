@@ -0,0 +1,13 @@
+package com.example.taskmanager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the application's scheduled maintenance jobs, such as the nightly purge of old task
+ * tombstones.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
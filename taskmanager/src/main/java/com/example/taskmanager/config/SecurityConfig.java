@@ -1,16 +1,29 @@
 package com.example.taskmanager.config;
 
 import com.example.taskmanager.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.DelegatingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
 
 /**
  * Configuration for application security.
@@ -22,6 +35,23 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+	/**
+	 * Number of password hashes that may wait for a hashing thread, per thread, before further logins
+	 * and registrations are rejected.
+	 */
+	private static final int QUEUED_HASHES_PER_THREAD = 16;
+
+	/**
+	 * Seconds a client rejected by the hashing pool is asked to wait before retrying.
+	 */
+	private static final String HASHING_RETRY_AFTER_SECONDS = "2";
+
+	/**
+	 * How long a successful password check of an API client is remembered before its credentials are
+	 * checked with BCrypt again.
+	 */
+	private static final Duration API_VERIFIED_PASSWORD_TTL = Duration.ofMinutes(1);
+
 	private final CustomUserDetailsService customUserDetailsService;
 	private final CustomAuthenticationSuccessHandler customAuthenticationSuccessHandler;
 
@@ -43,14 +73,21 @@ public class SecurityConfig {
 	/**
 	 * Provides a password encoder bean for hashing passwords.
 	 *
-	 * This method returns a {@link BCryptPasswordEncoder} instance,
-	 * which is used to encode passwords in a secure manner before storing them.
+	 * This method returns a {@link CalibratedBCryptPasswordEncoder}, whose work factor is the highest
+	 * that keeps a verification on this machine within the configured target time, running on a
+	 * {@link BoundedPasswordEncoder} pool with one thread per core, so hashing never runs on request
+	 * threads and a burst of logins can not starve other requests of CPU.
 	 *
-	 * @return a {@link BCryptPasswordEncoder} instance for password hashing
+	 * @param meterRegistry the registry the calibration and hashing pool metrics are published to
+	 * @param targetVerificationMillis the longest a password check should take, in milliseconds
+	 * @return a {@link BoundedPasswordEncoder} instance for password hashing
 	 */
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+										   @Value("${taskmanager.security.bcrypt.target-verification-millis:250}") long targetVerificationMillis) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(CalibratedBCryptPasswordEncoder.calibrate(targetVerificationMillis, meterRegistry),
+				threads, threads * QUEUED_HASHES_PER_THREAD, meterRegistry);
 	}
 
 	/**
@@ -58,20 +95,59 @@ public class SecurityConfig {
 	 *
 	 * The DaoAuthenticationProvider uses the provided CustomUserDetailsService
 	 * to retrieve user details for authentication and the configured password encoder for password matching.
+	 * After a successful login it also has CustomUserDetailsService re-hash the password if it was stored
+	 * with a lower work factor than the calibrated one.
 	 *
 	 * @param customUserDetailsService the service to load user-specific data
+	 * @param passwordEncoder the encoder used to check passwords
 	 * @return a fully configured DaoAuthenticationProvider
 	 */
 	@Bean
-	public DaoAuthenticationProvider daoAuthenticationProvider(CustomUserDetailsService customUserDetailsService) {
+	public DaoAuthenticationProvider daoAuthenticationProvider(CustomUserDetailsService customUserDetailsService,
+															   PasswordEncoder passwordEncoder) {
 		DaoAuthenticationProvider auth = new DaoAuthenticationProvider();
 		auth.setUserDetailsService(customUserDetailsService);
-		auth.setPasswordEncoder(passwordEncoder());
+		auth.setPasswordEncoder(passwordEncoder);
+		auth.setUserDetailsPasswordService(customUserDetailsService);
 
 		return auth;
 	}
 
 
+	/**
+	 * Configures the security filter chain for the REST API under /api/.
+	 *
+	 * API clients authenticate every request with HTTP Basic and no session is created, so there is no
+	 * session cookie to protect with a CSRF token. Failed authentication is answered with 401 instead of
+	 * a redirect to the login page. The password checks run on the same bounded hashing pool as logins,
+	 * and a successful check is remembered for {@code API_VERIFIED_PASSWORD_TTL}, so a client making many
+	 * calls pays for a BCrypt check once per interval rather than on every call.
+	 *
+	 * @param http the HttpSecurity to configure.
+	 * @param passwordEncoder the encoder used to check passwords
+	 * @return the built SecurityFilterChain.
+	 * @throws Exception if an error occurs while configuring the HttpSecurity.
+	 */
+	@Bean
+	@Order(1)
+	public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
+		DaoAuthenticationProvider apiAuthenticationProvider = new DaoAuthenticationProvider();
+		apiAuthenticationProvider.setUserDetailsService(customUserDetailsService);
+		apiAuthenticationProvider.setPasswordEncoder(new VerifiedPasswordCache(passwordEncoder, API_VERIFIED_PASSWORD_TTL));
+		apiAuthenticationProvider.setUserDetailsPasswordService(customUserDetailsService);
+
+		http.securityMatcher("/api/**")
+				.authenticationManager(new ProviderManager(apiAuthenticationProvider))
+				.authorizeHttpRequests(configurer ->
+						configurer
+								.anyRequest().hasAnyRole("USER", "ADMIN"))
+				.httpBasic(basic -> {})
+				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+				.csrf(csrf -> csrf.disable())
+				.anonymous(anonymous -> anonymous.disable());
+		return http.build();
+	}
+
 	/**
 	 * Configures the security filter chain for the application, defining which
 	 * endpoints require authentication, the login and logout processes, and how
@@ -86,11 +162,12 @@ public class SecurityConfig {
 
 		http.authorizeHttpRequests(configurer ->
 						configurer
-								.requestMatchers("/css/**", "/images/**").permitAll()
+								.requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
 								.requestMatchers("/", "/register-new-user", "/login", "/logout", "/access-denied", "/user/register-new-user").permitAll()
-								.requestMatchers("/dashboard", "/create-task", "/delete-tasks", "/update-task-status", "/update-user-info", "/update-password").authenticated()
+								.requestMatchers("/dashboard", "/create-task", "/import-tasks", "/delete-tasks", "/update-task-status", "/update-user-info", "/update-password").authenticated()
 								.requestMatchers("/user/**").hasAnyRole("USER","ADMIN")
 								.requestMatchers("/admin/**").hasRole("ADMIN")
+								.requestMatchers("/actuator/**").hasRole("ADMIN")
 								.anyRequest().authenticated()
 				)
 				.formLogin(form ->
@@ -98,7 +175,7 @@ public class SecurityConfig {
 								.loginPage("/login")
 								.loginProcessingUrl("/authenticateUser")
 								.successHandler(customAuthenticationSuccessHandler)
-								.failureUrl("/login?error=true")
+								.failureHandler(authenticationFailureHandler())
 								.permitAll())
 				.logout(logout ->
 						logout
@@ -114,6 +191,25 @@ public class SecurityConfig {
 		return http.build();
 	}
 
+	/**
+	 * Builds the handler for failed logins.
+	 *
+	 * Logins rejected because the password hashing pool is full are answered with 503 Service
+	 * Unavailable and a Retry-After header. Every other failure redirects back to the login page.
+	 *
+	 * @return the handler for failed logins
+	 */
+	private AuthenticationFailureHandler authenticationFailureHandler() {
+		LinkedHashMap<Class<? extends AuthenticationException>, AuthenticationFailureHandler> handlers = new LinkedHashMap<>();
+		handlers.put(PasswordHashingRejectedException.class, (request, response, exception) -> {
+			response.setHeader("Retry-After", HASHING_RETRY_AFTER_SECONDS);
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+		});
+
+		return new DelegatingAuthenticationFailureHandler(handlers,
+				new SimpleUrlAuthenticationFailureHandler("/login?error=true"));
+	}
+
 	/**
 	 * Configures and returns an AuthenticationManager for the application.
 	 * This method uses the provided HttpSecurity object to obtain an
@@ -121,14 +217,15 @@ public class SecurityConfig {
 	 * UserDetailsService and a password encoder.
 	 *
 	 * @param http the HttpSecurity object used to configure the AuthenticationManager
+	 * @param daoAuthenticationProvider the provider that checks usernames and passwords
 	 * @return the configured AuthenticationManager
 	 * @throws Exception if an error occurs while configuring the AuthenticationManager
 	 */
 	@Bean
-	public AuthenticationManager authManager(HttpSecurity http) throws Exception {
+	public AuthenticationManager authManager(HttpSecurity http, DaoAuthenticationProvider daoAuthenticationProvider) throws Exception {
 		AuthenticationManagerBuilder authenticationManagerBuilder =
 				http.getSharedObject(AuthenticationManagerBuilder.class);
-		authenticationManagerBuilder.authenticationProvider(daoAuthenticationProvider(customUserDetailsService));
+		authenticationManagerBuilder.authenticationProvider(daoAuthenticationProvider);
 		return authenticationManagerBuilder.build();
 	}
 
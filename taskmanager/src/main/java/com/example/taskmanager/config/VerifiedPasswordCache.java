@@ -0,0 +1,123 @@
+package com.example.taskmanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * A PasswordEncoder that remembers successful password checks for a short time, so clients that send
+ * their credentials with every request, like the HTTP Basic clients of the API, pay for a full BCrypt
+ * check only once in a while instead of on every call.
+ *
+ * A remembered check is keyed by the stored hash together with an HMAC of the raw password under a key
+ * generated at startup, so the cache never holds a password or a digest that could be attacked offline
+ * after a restart. Changing a user's password changes their stored hash, so checks of the old password
+ * stop matching straight away. Failed checks are never remembered.
+ */
+public class VerifiedPasswordCache implements PasswordEncoder {
+
+	/**
+	 * Maximum number of successful checks remembered at once.
+	 */
+	private static final int MAX_ENTRIES = 10_000;
+
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+
+	private final PasswordEncoder delegate;
+	private final SecretKey key;
+	private final Cache<String, Boolean> verified;
+
+	/**
+	 * Constructs a VerifiedPasswordCache.
+	 *
+	 * @param delegate the encoder that does the hashing and the full checks
+	 * @param ttl how long a successful check is remembered
+	 */
+	public VerifiedPasswordCache(PasswordEncoder delegate, Duration ttl) {
+		this.delegate = delegate;
+		this.verified = Caffeine.newBuilder()
+				.maximumSize(MAX_ENTRIES)
+				.expireAfterWrite(ttl)
+				.build();
+
+		try {
+			this.key = KeyGenerator.getInstance(MAC_ALGORITHM).generateKey();
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("No " + MAC_ALGORITHM + " support", e);
+		}
+	}
+
+	/**
+	 * Hashes a raw password with the underlying encoder.
+	 *
+	 * @param rawPassword the password to hash
+	 * @return the hash produced by the underlying encoder
+	 */
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return delegate.encode(rawPassword);
+	}
+
+	/**
+	 * Checks a raw password against a stored hash, answering from the remembered checks if the same
+	 * password was recently found to match the same hash.
+	 *
+	 * @param rawPassword the password to check
+	 * @param encodedPassword the stored hash
+	 * @return true if the password matches the hash
+	 */
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		if (rawPassword == null || encodedPassword == null) {
+			return delegate.matches(rawPassword, encodedPassword);
+		}
+
+		String cacheKey = encodedPassword + ":" + mac(rawPassword);
+		if (verified.getIfPresent(cacheKey) != null) {
+			return true;
+		}
+
+		boolean matches = delegate.matches(rawPassword, encodedPassword);
+		if (matches) {
+			verified.put(cacheKey, Boolean.TRUE);
+		}
+		return matches;
+	}
+
+	/**
+	 * Determines whether a stored hash should be re-hashed, as the underlying encoder decides.
+	 *
+	 * @param encodedPassword the stored hash
+	 * @return true if the hash should be upgraded
+	 */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * Computes the HMAC of a raw password under the key generated at startup.
+	 *
+	 * @param rawPassword the password
+	 * @return the HMAC, Base64 encoded
+	 */
+	private String mac(CharSequence rawPassword) {
+		try {
+			Mac mac = Mac.getInstance(MAC_ALGORITHM);
+			mac.init(key);
+			return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Could not compute " + MAC_ALGORITHM, e);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration used when the application runs on virtual threads.
+ *
+ * Setting spring.threads.virtual.enabled=true makes Spring Boot serve requests and run the application
+ * task executor on virtual threads. Blocking on JDBC or password hashing then no longer ties up a
+ * platform thread, but two things need care, and this class takes care of them: the connection pool
+ * must not be flooded by an unbounded number of waiting threads, and virtual threads that get pinned
+ * to their carrier thread should be noticed.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+	/**
+	 * How long a virtual thread must stay pinned before it is logged.
+	 */
+	private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+	/**
+	 * Hikari's pool size when spring.datasource.hikari.maximum-pool-size is not set.
+	 */
+	private static final int DEFAULT_POOL_SIZE = 10;
+
+	/**
+	 * Puts a {@link ConnectionLimitingDataSource} in front of the Hikari connection pool, with one permit
+	 * fewer than the pool has connections, and publishes the number of threads waiting for a permit as
+	 * the jdbc.connections.limiter.waiting gauge.
+	 *
+	 * @param meterRegistry provider of the registry the waiting threads gauge is published to
+	 * @return the post processor that wraps the pool
+	 */
+	@Bean
+	public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof HikariDataSource hikariDataSource)) {
+					return bean;
+				}
+
+				// Hikari only applies its default size when the pool starts, so fix the size here
+				if (hikariDataSource.getMaximumPoolSize() < 1) {
+					hikariDataSource.setMaximumPoolSize(DEFAULT_POOL_SIZE);
+				}
+
+				// The connection left over serves the ID generator, which needs one while its caller holds a permit
+				ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(hikariDataSource,
+						Math.max(1, hikariDataSource.getMaximumPoolSize() - 1), hikariDataSource.getConnectionTimeout());
+				meterRegistry.ifAvailable(registry ->
+						Gauge.builder("jdbc.connections.limiter.waiting", dataSource, ConnectionLimitingDataSource::getWaitingThreads)
+								.register(registry));
+				return dataSource;
+			}
+		};
+	}
+
+	/**
+	 * Provides the monitor that logs virtual threads pinned to their carrier thread.
+	 *
+	 * @param meterRegistry the registry the pinned thread counter is published to
+	 * @return the pinned thread monitor
+	 */
+	@Bean
+	public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+		return new VirtualThreadPinningMonitor(PINNED_THRESHOLD, meterRegistry);
+	}
+}
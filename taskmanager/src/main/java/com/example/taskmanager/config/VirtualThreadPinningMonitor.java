@@ -0,0 +1,109 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier thread.
+ *
+ * A virtual thread that blocks while inside a synchronized block or a native frame can not unmount,
+ * so it holds one of the few carrier threads for as long as it blocks. JDBC drivers and other libraries
+ * still do this in places. This monitor listens for the JDK Flight Recorder jdk.VirtualThreadPinned
+ * event in-process, logs each pin that lasts longer than the threshold with the stack that caused it,
+ * and counts them in the jvm.threads.virtual.pinned counter.
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	/**
+	 * Number of stack frames logged for each pinned thread.
+	 */
+	private static final int LOGGED_FRAMES = 12;
+
+	private final Duration threshold;
+	private final Counter pinnedCounter;
+
+	private RecordingStream recordingStream;
+
+	/**
+	 * Constructs a VirtualThreadPinningMonitor.
+	 *
+	 * @param threshold how long a virtual thread must stay pinned before it is reported
+	 * @param meterRegistry the registry the pinned thread counter is published to
+	 */
+	public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+		this.threshold = threshold;
+		this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned").register(meterRegistry);
+	}
+
+	/**
+	 * Starts listening for pinned virtual threads.
+	 */
+	@Override
+	public synchronized void start() {
+		recordingStream = new RecordingStream();
+		recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+		recordingStream.onEvent("jdk.VirtualThreadPinned", this::report);
+		recordingStream.startAsync();
+	}
+
+	/**
+	 * Stops listening for pinned virtual threads.
+	 */
+	@Override
+	public synchronized void stop() {
+		if (recordingStream != null) {
+			recordingStream.close();
+			recordingStream = null;
+		}
+	}
+
+	/**
+	 * Determines whether the monitor is listening.
+	 *
+	 * @return true if the monitor has been started and not stopped
+	 */
+	@Override
+	public synchronized boolean isRunning() {
+		return recordingStream != null;
+	}
+
+	/**
+	 * Logs and counts one pinned virtual thread.
+	 *
+	 * @param event the jdk.VirtualThreadPinned event
+	 */
+	private void report(RecordedEvent event) {
+		pinnedCounter.increment();
+
+		String stack = event.getStackTrace() == null ? "  (no stack trace)" : event.getStackTrace().getFrames().stream()
+				.limit(LOGGED_FRAMES)
+				.map(this::formatFrame)
+				.collect(Collectors.joining("\n"));
+
+		logger.warn("Virtual thread {} was pinned to its carrier for {} ms:\n{}",
+				event.getThread() == null ? "?" : event.getThread().getJavaName(),
+				event.getDuration().toMillis(), stack);
+	}
+
+	/**
+	 * Formats a stack frame the way a Java stack trace does.
+	 *
+	 * @param frame the frame to format
+	 * @return the formatted frame
+	 */
+	private String formatFrame(RecordedFrame frame) {
+		return "  at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+				+ "(line " + frame.getLineNumber() + ")";
+	}
+}
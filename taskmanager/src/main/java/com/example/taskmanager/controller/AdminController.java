@@ -1,30 +1,39 @@
 package com.example.taskmanager.controller;
 
-
-import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.config.PasswordHashingRejectedException;
+import com.example.taskmanager.dto.AdminUserPageDTO;
 import com.example.taskmanager.dto.UserDTO;
 import com.example.taskmanager.dto.WebTaskDTO;
 import com.example.taskmanager.dto.WebUserDTO;
 import com.example.taskmanager.entity.Role;
 import com.example.taskmanager.entity.User;
 import com.example.taskmanager.service.RoleService;
+import com.example.taskmanager.service.TaskExportService;
+import com.example.taskmanager.service.TaskImportFormat;
 import com.example.taskmanager.service.TaskService;
 import com.example.taskmanager.service.UserService;
 import com.example.taskmanager.validation.OnCreate;
 import com.example.taskmanager.validation.OnPasswordUpdate;
 import com.example.taskmanager.validation.OnUpdate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Controller
 @RequestMapping("/admin")
@@ -34,6 +43,8 @@ public class AdminController {
 	private final UserService userService;
 	private final TaskService taskService;
 	private final RoleService roleService;
+	private final StreamingViewRenderer streamingViewRenderer;
+	private final TaskExportService taskExportService;
 
 
 	/**
@@ -42,14 +53,20 @@ public class AdminController {
 	 * @param userService the service for user operations
 	 * @param taskService the service for task operations
 	 * @param roleService the service for role operations
+	 * @param streamingViewRenderer the renderer of pages whose tasks are streamed from the database
+	 * @param taskExportService the service for task exports
 	 */
 	@Autowired
 	public AdminController(UserService userService,
 						   TaskService taskService,
-						   RoleService roleService) {
+						   RoleService roleService,
+						   StreamingViewRenderer streamingViewRenderer,
+						   TaskExportService taskExportService) {
 		this.userService = userService;
 		this.taskService = taskService;
 		this.roleService = roleService;
+		this.streamingViewRenderer = streamingViewRenderer;
+		this.taskExportService = taskExportService;
 	}
 
 
@@ -58,15 +75,20 @@ public class AdminController {
 	 *
 	 * This method is responsible for rendering the administrator's dashboard view. It checks if the
 	 * current user is authenticated and has the appropriate administrative roles. If not, it redirects
-	 * the user to the appropriate login or user dashboard pages. Otherwise, it loads all users and
-	 * includes this data in the model for the admin dashboard view.
+	 * the user to the appropriate login or user dashboard pages. Otherwise, it loads one page of user
+	 * summaries, with each user's roles and task counts, and includes this data in the model for the
+	 * admin dashboard view.
 	 *
+	 * @param search the prefix the listed usernames must start with, or null to list all users
+	 * @param cursor the cursor of the page to display, or null for the first page
 	 * @param model the model object to add attributes to be used in the view
 	 * @param authentication the authentication object representing the currently logged-in user
 	 * @return a string indicating the view name to be rendered
 	 */
 	@GetMapping("/dashboard")
-	public String showAdminDashboard(Model model, Authentication authentication) {
+	public String showAdminDashboard(@RequestParam(value = "search", required = false) String search,
+									 @RequestParam(value = "cursor", required = false) String cursor,
+									 Model model, Authentication authentication) {
 
 		if (authentication == null || !authentication.isAuthenticated()) {
 			return "redirect:/login";
@@ -76,8 +98,11 @@ public class AdminController {
 			return "redirect:/dashboard";
 		}
 
-		List<UserDTO> users = userService.getAllUsers();
-		model.addAttribute("users", users);
+		AdminUserPageDTO page = userService.getAdminUserSummaryPage(search, cursor);
+		model.addAttribute("users", page.getUsers());
+		model.addAttribute("nextCursor", page.getNextCursor());
+		model.addAttribute("cursor", cursor);
+		model.addAttribute("search", search);
 
 		return "admin-dashboard";
 	}
@@ -85,19 +110,40 @@ public class AdminController {
 	/**
 	 * Displays the tasks associated with a specific user for an admin, allowing for their deletion.
 	 *
+	 * The tasks are streamed from the database while the page is written, so the page starts reaching
+	 * the browser straight away and a user with any number of tasks is rendered in constant memory.
+	 *
 	 * @param username the username of the user whose tasks are to be displayed
 	 * @param model the Model object used to pass attributes to the view
-	 * @return the name of the view to render, which in this case is "admin-user-tasks"
+	 * @param request the current request
+	 * @param response the response the "admin-user-tasks" view is written to
+	 * @throws Exception if the view can not be rendered
 	 */
 	@GetMapping("/user-tasks/{username}")
-	public String showUserTasks(@PathVariable String username, Model model) {
+	public void showUserTasks(@PathVariable String username, Model model,
+							  HttpServletRequest request, HttpServletResponse response) throws Exception {
 
-		User user = userService.getUserByUsername(username);
-		List<TaskDTO> tasks = taskService.getTasksByUserId(user.getId());
-		model.addAttribute("tasks", tasks);
 		model.addAttribute("username", username);
 
-		return "admin-user-tasks";
+		streamingViewRenderer.render("admin-user-tasks", model, "tasks",
+				() -> taskService.streamTasksByUsername(username), request, response);
+	}
+
+	/**
+	 * Downloads the tasks of every user as a CSV or NDJSON file, with each task's owner in the
+	 * username column.
+	 *
+	 * The file is streamed to the client while the tasks are read from the database, on an async
+	 * request thread, so an export of any size runs in constant memory.
+	 *
+	 * @param format the format of the file
+	 * @param gzip whether to compress the file with gzip
+	 * @return the response streaming the file
+	 */
+	@GetMapping("/export-tasks")
+	public ResponseEntity<StreamingResponseBody> exportAllTasks(@RequestParam(value = "format", defaultValue = "CSV") TaskImportFormat format,
+																@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+		return TaskController.exportResponse("all-tasks", format, gzip, output -> taskExportService.exportAllTasks(format, output));
 	}
 
 	/**
@@ -134,7 +180,7 @@ public class AdminController {
 	@GetMapping("/update-user-info/{username}")
 	public String updateUserInfo(@PathVariable("username") String username,
 								 Model model) {
-		User user = userService.getUserByUsername(username);
+		User user = userService.getUserWithRolesByUsername(username);
 		WebUserDTO webUserDTO = WebUserDTO.builder()
 				.username(user.getUsername())
 				.firstName(user.getFirstName())
@@ -212,32 +258,46 @@ public class AdminController {
 	 * This method handles the POST request to create a task for a user identified by their username.
 	 * It validates the input data and redirects accordingly based on the presence of validation errors.
 	 * The method also handles unexpected exceptions by redirecting and setting an appropriate error message.
+	 * A fragment request is answered with the task form and its message alone, emptied after a
+	 * successful creation so another task can be entered.
 	 *
 	 * @param username the username of the user to whom the task will be assigned
 	 * @param webTaskDTO the Data Transfer Object containing the task details
 	 * @param bindingResult holds the result of the validation and binding of the webTaskDTO
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
 	 * @param redirectAttributes attributes for a redirect scenario to pass along flash attributes
+	 * @param model the model the form page or fragment is rendered from
 	 * @return a string representing the view name to be rendered or the redirect target
 	 */
 	@PostMapping("/create-user-task/{username}")
 	public String createUserTask(@PathVariable String username,
 								 @Valid @ModelAttribute("webTaskDTO") WebTaskDTO webTaskDTO,
 								 BindingResult bindingResult,
+								 @RequestHeader(value = TaskController.FRAGMENT_REQUEST_HEADER, defaultValue = "false") boolean fragmentRequest,
 								 RedirectAttributes redirectAttributes,
 								 Model model) {
 		if (bindingResult.hasErrors()) {
 			model.addAttribute("username", username);
-			return "admin-create-user-task";
+			return fragmentRequest ? "admin-create-user-task :: #task-form" : "admin-create-user-task";
 		}
-		try {
-			taskService.createTask(webTaskDTO, username);
-			redirectAttributes.addFlashAttribute("successMessage", "Task successfully created for " + username);
+
+		User user = userService.getUserByUsername(username);
+
+		if (user == null) {
+			redirectAttributes.addFlashAttribute("error", "User not found.");
 			return "redirect:/admin/dashboard";
 		}
-		catch (Exception e) {
-			redirectAttributes.addFlashAttribute("error", "An unexpected error occured: " + e.getMessage());
-			return "redirect:/admin/dashboard";
+
+		TaskController.createFromTaskForm(() -> taskService.createTask(webTaskDTO, user.getId()),
+				"Task successfully created for " + username, "An unexpected error occurred: ",
+				fragmentRequest, model, redirectAttributes);
+
+		if (fragmentRequest) {
+			model.addAttribute("username", username);
+			return "admin-create-user-task :: #task-form";
 		}
+
+		return "redirect:/admin/dashboard";
 	}
 
 
@@ -245,27 +305,49 @@ public class AdminController {
 	 * Deletes the tasks specified by the list of task IDs.
 	 *
 	 * This method handles deletion of tasks for a user by accepting a list of task IDs and
-	 * deleting those tasks from the system. It adds appropriate flash messages to provide
-	 * feedback to the user about the success or failure of the operation.
+	 * deleting those of the user's tasks from the system in one transaction. It adds appropriate
+	 * flash messages to provide feedback to the user about the success or failure of the operation.
+	 * A fragment request is answered with the message and the rows of the tasks that were deleted, to
+	 * take off the page, instead.
 	 *
 	 * @param selectedItems the list of task IDs to be deleted
+	 * @param username the username of the user whose tasks are to be deleted
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
+	 * @param model the model the fragment is rendered from
 	 * @param redirectAttributes attributes to be used in the redirect scenario to pass along flash attributes
-	 * @return a string representing the redirect target to the admin user tasks view
+	 * @return a string representing the redirect target to the admin user tasks view, or the fragment to render
 	 */
-	@DeleteMapping("/delete-user-tasks")
-	public String deleteUserTasks(@RequestParam List<Integer> selectedItems,
+	@DeleteMapping("/delete-user-tasks/{username}")
+	public String deleteUserTasks(@RequestParam(required = false) List<Integer> selectedItems,
 								  @PathVariable String username,
+								  @RequestHeader(value = TaskController.FRAGMENT_REQUEST_HEADER, defaultValue = "false") boolean fragmentRequest,
+								  Model model,
 								  RedirectAttributes redirectAttributes) {
 		if (selectedItems == null || selectedItems.isEmpty()) {
+			if (fragmentRequest) {
+				model.addAttribute("error", "No tasks selected.");
+				return "fragments/tasks :: action-result";
+			}
 			redirectAttributes.addFlashAttribute("error", "No tasks selected.");
 			return "redirect:/admin/user-tasks/" + username;
 		}
 
-		for (int id : selectedItems) {
-			taskService.deleteTask(id);
+		User user = userService.getUserByUsername(username);
+
+		if (user == null) {
+			redirectAttributes.addFlashAttribute("error", "User not found.");
+			return "redirect:/admin/dashboard";
+		}
+
+		List<Integer> deleted = taskService.deleteTasks(selectedItems, user.getId());
+
+		if (fragmentRequest) {
+			model.addAttribute("successMessage", deleted.size() + " selected task(s) successfully deleted.");
+			model.addAttribute("removedTaskIds", deleted);
+			return "fragments/tasks :: action-result";
 		}
 
-		redirectAttributes.addFlashAttribute("successMessage", "Selected items successfully delete");
+		redirectAttributes.addFlashAttribute("successMessage", deleted.size() + " selected task(s) successfully deleted.");
 		return "redirect:/admin/user-tasks/" + username;
 
 	}
@@ -331,6 +413,9 @@ public class AdminController {
 			redirectAttributes.addFlashAttribute("successMessage", "User was successfully created.");
 			return "redirect:/admin/dashboard";
 		}
+		catch (PasswordHashingRejectedException e) {
+			throw e;
+		}
 		catch (Exception e) {
 			redirectAttributes.addFlashAttribute("error", "User Creation Failed " + e.getMessage());
 			return "admin-create-user";
@@ -343,44 +428,76 @@ public class AdminController {
 	 *
 	 * This method handles the update of a user's password. It validates the provided password
 	 * data and updates the password if the data is valid. In case of validation errors, it
-	 * returns to the password update form. Upon successful update, it redirects to the admin
-	 * dashboard with a success message or an error message if the update fails.
+	 * returns to the password update form. The password is hashed without holding the request
+	 * thread; once it is saved, it redirects to the admin dashboard with a success message or an
+	 * error message if the update fails.
 	 *
 	 * @param webUserDTO the Data Transfer Object containing the user's password information
 	 * @param bindingResult holds the result of the validation and binding of the webUserDTO
 	 * @param redirectAttributes attributes for a redirect scenario to pass along flash attributes
-	 * @return a string representing the view name to be rendered or the redirect target
+	 * @return a future completed with a string representing the view name to be rendered or the redirect target
 	 */
 	@PatchMapping("/update-password")
-	public String updateUserPassword(@Validated(OnPasswordUpdate.class) @ModelAttribute("webUserDTO") WebUserDTO webUserDTO,
-									 BindingResult bindingResult,
-									 RedirectAttributes redirectAttributes) {
+	public CompletableFuture<String> updateUserPassword(@Validated(OnPasswordUpdate.class) @ModelAttribute("webUserDTO") WebUserDTO webUserDTO,
+														BindingResult bindingResult,
+														RedirectAttributes redirectAttributes) {
 
 		if (!webUserDTO.getPassword().equals(webUserDTO.getPasswordConfirmation())) {
 			bindingResult.rejectValue("passwordConfirmation", null, "Passwords do not match.");
 		}
 
 		if (bindingResult.hasErrors()) {
-			return "admin-update-password-form";
+			return CompletableFuture.completedFuture("admin-update-password-form");
 		}
 
-		Optional<UserDTO> updatedUser = Optional.empty();
-		try {
-			updatedUser = userService.updatePassword(webUserDTO);
-		}
-		catch (IllegalArgumentException e) {
-			redirectAttributes.addFlashAttribute("error", e.getMessage());
-			return "redirect:/admin/update-password/" + webUserDTO.getUsername();
-		}
+		return userService.updatePassword(webUserDTO)
+				.thenApply(updatedUser -> {
+					if (updatedUser.isEmpty()) {
+						redirectAttributes.addFlashAttribute("error", "Error updating password.");
+						return "redirect:/admin/update-password/" + webUserDTO.getUsername();
+					}
+
+					redirectAttributes.addFlashAttribute("successMessage", "Password successfully updated.");
+					return "redirect:/admin/dashboard";
+				})
+				.exceptionally(e -> {
+					Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+					if (!(cause instanceof IllegalArgumentException)) {
+						throw new CompletionException(cause);
+					}
+
+					redirectAttributes.addFlashAttribute("error", cause.getMessage());
+					return "redirect:/admin/update-password/" + webUserDTO.getUsername();
+				});
+	}
 
+	/**
+	 * Resets the passwords of the selected users to generated temporary passwords.
+	 *
+	 * The passwords are hashed in parallel, and the temporary passwords are rendered once, in the
+	 * response to this request, so they can be handed to their users. They are never put in a flash
+	 * attribute, which would keep them in the session until the next page is shown.
+	 *
+	 * @param selectedUsers the usernames of the users whose passwords are reset
+	 * @param model the model the temporary passwords are rendered from
+	 * @param redirectAttributes attributes for a redirect scenario to pass along flash attributes
+	 * @return the "admin-temporary-passwords" view, or a redirect to the admin dashboard if no users were selected
+	 */
+	@PostMapping("/reset-passwords")
+	public String resetPasswords(@RequestParam(value = "selectedUsers", required = false) List<String> selectedUsers,
+								 Model model,
+								 RedirectAttributes redirectAttributes) {
 
-		if (updatedUser.isEmpty()) {
-			redirectAttributes.addFlashAttribute("error", "Error updating password.");
-			return "redirect:/admin/update-password/" + webUserDTO.getUsername();
+		if (selectedUsers == null || selectedUsers.isEmpty()) {
+			redirectAttributes.addFlashAttribute("error", "No users selected.");
+			return "redirect:/admin/dashboard";
 		}
 
-		redirectAttributes.addFlashAttribute("successMessage", "Password successfully updated.");
-		return "redirect:/admin/dashboard";
+		Map<String, String> temporaryPasswords = userService.resetPasswords(selectedUsers);
+
+		model.addAttribute("temporaryPasswords", temporaryPasswords);
+		model.addAttribute("successMessage", "Passwords reset for " + temporaryPasswords.size() + " user(s).");
+		return "admin-temporary-passwords";
 	}
 
 
@@ -0,0 +1,83 @@
+package com.example.taskmanager.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.Model;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Renders Thymeleaf views whose rows are read from a database stream while the page is written.
+ *
+ * A regular view is rendered after its handler has returned, when the handler's transaction is over,
+ * so its rows must all be loaded into a list first. Here the view is rendered inside a read-only
+ * transaction instead, with the rows handed to the template as an iterator over the open stream.
+ * Thymeleaf writes to the response as it processes the template, so the page leaves the server in
+ * chunks as the rows are read, and memory use does not grow with the number of rows.
+ */
+@Component
+public class StreamingViewRenderer {
+
+	private final ThymeleafViewResolver viewResolver;
+	private final TransactionTemplate readOnlyTransactionTemplate;
+
+	/**
+	 * Constructs a StreamingViewRenderer.
+	 *
+	 * @param viewResolver the resolver of the Thymeleaf views
+	 * @param transactionManager the transaction manager the read-only transactions are run with
+	 */
+	@Autowired
+	public StreamingViewRenderer(ThymeleafViewResolver viewResolver, PlatformTransactionManager transactionManager) {
+		this.viewResolver = viewResolver;
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+	}
+
+	/**
+	 * Renders a view with rows streamed from the database.
+	 *
+	 * The rows are exposed to the template as an {@link Iterator} under the given name, which th:each
+	 * can iterate once; the template must not ask for its size.
+	 *
+	 * @param viewName the name of the view to render
+	 * @param model the model holding the view's other attributes
+	 * @param rowsAttribute the name of the model attribute the rows are exposed as
+	 * @param rows opens the stream of rows; called inside the read-only transaction
+	 * @param request the current request
+	 * @param response the response the view is written to
+	 * @throws Exception if the view can not be resolved or rendered
+	 */
+	public void render(String viewName, Model model, String rowsAttribute, Supplier<? extends Stream<?>> rows,
+					   HttpServletRequest request, HttpServletResponse response) throws Exception {
+		View view = viewResolver.resolveViewName(viewName, RequestContextUtils.getLocale(request));
+		if (view == null) {
+			throw new IllegalStateException("No view named " + viewName);
+		}
+
+		Exception failure = readOnlyTransactionTemplate.execute(status -> {
+			try (Stream<?> stream = rows.get()) {
+				model.addAttribute(rowsAttribute, stream.iterator());
+				view.render(model.asMap(), request, response);
+				return null;
+			}
+			catch (Exception e) {
+				status.setRollbackOnly();
+				return e;
+			}
+		});
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
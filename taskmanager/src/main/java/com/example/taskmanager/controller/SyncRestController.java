@@ -0,0 +1,61 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.dto.TaskSyncDTO;
+import com.example.taskmanager.service.TaskManagerUserDetails;
+import com.example.taskmanager.service.TaskSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for the delta sync of the authenticated user's tasks, at /api/v1/sync.
+ *
+ * A client syncs first without a token to get every task, one page at a time, passing the cursor from
+ * each page to get the next, until the last page returns a token. It then passes the token from each
+ * response to the next sync to get only the tasks created, changed or deleted in between. A token older
+ * than the tombstone retention period is answered with 410 Gone, after which the client syncs again
+ * without one.
+ */
+@RestController
+@RequestMapping("/api/v1/sync")
+public class SyncRestController {
+
+	private final TaskSyncService taskSyncService;
+
+	/**
+	 * Constructs a new SyncRestController with the given sync service.
+	 *
+	 * @param taskSyncService the service that finds the changes since a token
+	 */
+	@Autowired
+	public SyncRestController(TaskSyncService taskSyncService) {
+		this.taskSyncService = taskSyncService;
+	}
+
+	/**
+	 * Returns the changes to the user's tasks since the given token.
+	 *
+	 * @param since the token returned by the previous sync, or null for a full sync
+	 * @param cursor the cursor returned by the previous page of a full sync, or null for its first page
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @return the changed tasks, the IDs of deleted tasks and the token for the next sync, or the cursor
+	 *         of the next page of a full sync
+	 * @throws ResponseStatusException with 400 if the token or cursor is malformed
+	 */
+	@GetMapping
+	public TaskSyncDTO sync(@RequestParam(value = "since", required = false) String since,
+							@RequestParam(value = "cursor", required = false) String cursor,
+							@AuthenticationPrincipal TaskManagerUserDetails userDetails) {
+		try {
+			return taskSyncService.getChanges(userDetails.getId(), since, cursor);
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		}
+	}
+}
@@ -1,35 +1,86 @@
 package com.example.taskmanager.controller;
 
 
+import com.example.taskmanager.dto.TaskImportResultDTO;
 import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.service.TaskEventBroadcaster;
+import com.example.taskmanager.service.TaskExportService;
+import com.example.taskmanager.service.TaskImportFormat;
+import com.example.taskmanager.service.TaskImportService;
+import com.example.taskmanager.service.TaskManagerUserDetails;
 import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.TaskStatusFilter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/task")
 public class TaskController {
 
+	/**
+	 * Header sent with fragment requests, named after the one htmx sends. Such requests are answered
+	 * with the fragments of the page that changed instead of a redirect.
+	 */
+	static final String FRAGMENT_REQUEST_HEADER = "HX-Request";
+
 	private final TaskService taskService;
+	private final TaskImportService taskImportService;
+	private final TaskEventBroadcaster taskEventBroadcaster;
+	private final TaskExportService taskExportService;
 
 	/**
 	 * Constructor for TaskController.
 	 *
 	 * This constructor injects the TaskService dependency, which is used for managing
-	 * task-related operations like creating, deleting, and updating tasks.
+	 * task-related operations like creating, deleting, and updating tasks, and the
+	 * TaskImportService dependency, which is used to import tasks from uploaded files, the
+	 * TaskEventBroadcaster, which streams task changes to open dashboards, and the TaskExportService,
+	 * which writes tasks out as files.
 	 *
 	 * @param taskService the service used for task operations
+	 * @param taskImportService the service used for task imports
+	 * @param taskEventBroadcaster the broadcaster of task change events
+	 * @param taskExportService the service used for task exports
 	 */
 	@Autowired
-	public TaskController(TaskService taskService) {
+	public TaskController(TaskService taskService, TaskImportService taskImportService,
+						  TaskEventBroadcaster taskEventBroadcaster, TaskExportService taskExportService) {
 		this.taskService = taskService;
+		this.taskImportService = taskImportService;
+		this.taskEventBroadcaster = taskEventBroadcaster;
+		this.taskExportService = taskExportService;
+	}
+
+
+	/**
+	 * Opens a Server-Sent Events stream telling the dashboard when the user's tasks change, including
+	 * changes made by an administrator or from another session.
+	 *
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @return the emitter the events are written to
+	 */
+	@GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamTaskEvents(@AuthenticationPrincipal TaskManagerUserDetails userDetails) {
+		return taskEventBroadcaster.subscribe(userDetails.getId());
 	}
 
 
@@ -39,33 +90,33 @@ public class TaskController {
 	 * This method processes the incoming request to create a new task by validating the provided
 	 * data, and delegates the task creation to the task service. It also handles any validation
 	 * errors and displays appropriate flash messages based on the outcome of the operation.
+	 * A fragment request is answered with the task form and its message alone, emptied after a
+	 * successful creation so another task can be entered.
 	 *
 	 * @param webTaskDTO the Data Transfer Object containing task details to be created
 	 * @param bindingResult the object holding the result of the validation and binding
-	 * @param authentication the authentication object containing the currently authenticated user's details
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
+	 * @param model the model the fragment is rendered from
 	 * @param redirectAttributes attributes for storing flash attributes to be used in a redirect scenario
-	 * @return the view name to be redirected to after processing the request
+	 * @return the view name to be redirected to after processing the request, or the fragment to render
 	 */
 	@PostMapping("/create")
 	public String createTask(@Valid @ModelAttribute("webTaskDTO")WebTaskDTO webTaskDTO,
 							 BindingResult bindingResult,
-							 Authentication authentication,
+							 @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+							 @RequestHeader(value = FRAGMENT_REQUEST_HEADER, defaultValue = "false") boolean fragmentRequest,
+							 Model model,
 							 RedirectAttributes redirectAttributes) {
 
 		if (bindingResult.hasErrors()) {
-			return "create-task";
+			return fragmentRequest ? "create-task :: #task-form" : "create-task";
 		}
 
-		String username = authentication.getName();
-		try {
-			taskService.createTask(webTaskDTO, username);
-			redirectAttributes.addFlashAttribute("successMessage", "Task created successfully!");
-			return "redirect:/dashboard";
-		}
-		catch (Exception e) {
-			redirectAttributes.addFlashAttribute("error", "Task Creation Failed" + e.getMessage());
-			return "redirect:/dashboard";
-		}
+		createFromTaskForm(() -> taskService.createTask(webTaskDTO, userDetails.getId()),
+				"Task created successfully!", "Task Creation Failed", fragmentRequest, model, redirectAttributes);
+
+		return fragmentRequest ? "create-task :: #task-form" : "redirect:/dashboard";
 	}
 
 
@@ -73,22 +124,34 @@ public class TaskController {
 	 * Handles the deletion of selected tasks.
 	 *
 	 * This method processes the incoming request to delete multiple tasks specified by their IDs.
-	 * It delegates the actual deletion to the task service and stores a success message
-	 * as a flash attribute for redirection to the dashboard.
+	 * It delegates the deletion to the task service, which removes all selected tasks owned by the
+	 * authenticated user in one transaction, and stores a success message as a flash attribute
+	 * for redirection to the dashboard. A fragment request is answered with the message and the
+	 * rows of the tasks that were deleted, to take off the page, instead.
 	 *
 	 * @param selectedItems a list of task IDs to be deleted
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
+	 * @param model the model the fragment is rendered from
 	 * @param redirectAttributes attributes for storing flash attributes to be used in a redirect scenario
-	 * @return the view name to be redirected to after processing the request
+	 * @return the view name to be redirected to after processing the request, or the fragment to render
 	 */
 	@DeleteMapping("/delete-tasks")
 	public String deleteTasks(@RequestParam List<Integer> selectedItems,
+							  @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+							  @RequestHeader(value = FRAGMENT_REQUEST_HEADER, defaultValue = "false") boolean fragmentRequest,
+							  Model model,
 							  RedirectAttributes redirectAttributes) {
 
-		for (int id : selectedItems) {
-			taskService.deleteTask(id);
+		List<Integer> deleted = taskService.deleteTasks(selectedItems, userDetails.getId());
+
+		if (fragmentRequest) {
+			model.addAttribute("successMessage", deleted.size() + " selected task(s) successfully deleted.");
+			model.addAttribute("removedTaskIds", deleted);
+			return "fragments/tasks :: action-result";
 		}
 
-		redirectAttributes.addFlashAttribute("successMessage", "Selected tasks successfully delete.");
+		redirectAttributes.addFlashAttribute("successMessage", deleted.size() + " selected task(s) successfully deleted.");
 
 		return "redirect:/dashboard";
 	}
@@ -96,20 +159,39 @@ public class TaskController {
 	/**
 	 * Updates the status of selected tasks.
 	 *
-	 * This method toggles the status of each task specified by its ID, provided in the selectedItems list.
-	 * It delegates the status toggling to the task service and stores a success message
-	 * as a flash attribute for redirection to the dashboard.
+	 * This method sets the status of every task specified by its ID in the selectedItems list to the
+	 * requested status. It delegates the update to the task service, which changes all selected tasks
+	 * owned by the authenticated user with one statement, and stores a success message
+	 * as a flash attribute for redirection to the dashboard. A fragment request is answered with the
+	 * message and the new status cells of the tasks that were updated instead, or with their rows to
+	 * take off the page when the page's status filter no longer shows them; nothing has to be queried
+	 * to render either.
 	 *
 	 * @param selectedItems a list of task IDs whose status needs to be updated
+	 * @param taskStatus the status to set, true to mark the tasks completed and false to mark them pending
+	 * @param status the status filter of the page the tasks were selected on
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
+	 * @param model the model the fragment is rendered from
 	 * @param redirectAttributes attributes for storing flash attributes to be used in a redirect scenario
-	 * @return the view name to be redirected to after processing the request
+	 * @return the view name to be redirected to after processing the request, or the fragment to render
 	 */
 	@PatchMapping("/update-status")
 	public String updateTaskStatus(@RequestParam List<Integer> selectedItems,
+								   @RequestParam boolean taskStatus,
+								   @RequestParam(value = "status", defaultValue = "ALL") TaskStatusFilter status,
+								   @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+								   @RequestHeader(value = FRAGMENT_REQUEST_HEADER, defaultValue = "false") boolean fragmentRequest,
+								   Model model,
 								   RedirectAttributes redirectAttributes) {
 
-		for (int id : selectedItems) {
-			taskService.toggleTaskStatus(id);
+		List<Integer> updated = taskService.setTaskStatus(selectedItems, userDetails.getId(), taskStatus);
+
+		if (fragmentRequest) {
+			model.addAttribute("successMessage", "Selected tasks status' updated.");
+			model.addAttribute(status.shows(taskStatus) ? "updatedTaskIds" : "removedTaskIds", updated);
+			model.addAttribute("updatedTaskStatus", taskStatus);
+			return "fragments/tasks :: action-result";
 		}
 
 		redirectAttributes.addFlashAttribute("successMessage", "Selected tasks status' updated.");
@@ -117,5 +199,137 @@ public class TaskController {
 		return "redirect:/dashboard";
 	}
 
+	/**
+	 * Imports tasks from an uploaded CSV or NDJSON file.
+	 *
+	 * The file is streamed row by row into the import service, which inserts every valid row as a task
+	 * owned by the authenticated user. The import summary, including the reason each rejected row was
+	 * skipped, is stored as a flash attribute for redirection back to the import page.
+	 *
+	 * @param file the uploaded file, whose extension selects the import format
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param redirectAttributes attributes for storing flash attributes to be used in a redirect scenario
+	 * @return the view name to be redirected to after processing the request
+	 */
+	@PostMapping("/import")
+	public String importTasks(@RequestParam("file") MultipartFile file,
+							  @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+							  RedirectAttributes redirectAttributes) {
+
+		TaskImportFormat format = TaskImportFormat.fromFilename(file.getOriginalFilename());
+		if (file.isEmpty() || format == null) {
+			redirectAttributes.addFlashAttribute("error", "Please choose a .csv or .ndjson file to import.");
+			return "redirect:/import-tasks";
+		}
+
+		try (InputStream input = file.getInputStream()) {
+			TaskImportResultDTO result = taskImportService.importTasks(input, format, userDetails.getId());
+			redirectAttributes.addFlashAttribute("importResult", result);
+			redirectAttributes.addFlashAttribute("successMessage", result.getImportedCount() + " task(s) imported.");
+		}
+		catch (IOException e) {
+			redirectAttributes.addFlashAttribute("error", "Task Import Failed: " + e.getMessage());
+		}
+
+		return "redirect:/import-tasks";
+	}
+
+	/**
+	 * Downloads the authenticated user's tasks as a CSV or NDJSON file that can be imported again.
+	 *
+	 * The file is streamed to the client while the tasks are read from the database, on an async
+	 * request thread, so an export of any size runs in constant memory.
+	 *
+	 * @param format the format of the file
+	 * @param gzip whether to compress the file with gzip
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @return the response streaming the file
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(value = "format", defaultValue = "CSV") TaskImportFormat format,
+															 @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+															 @AuthenticationPrincipal TaskManagerUserDetails userDetails) {
+		int userId = userDetails.getId();
+		return exportResponse("tasks", format, gzip, output -> taskExportService.exportTasks(userId, format, output));
+	}
+
+	/**
+	 * Creates a task submitted from a task form and stores the outcome as a message. A fragment request
+	 * gets the message in the model, with the form emptied after a successful creation so another task
+	 * can be entered; any other request gets it as a flash attribute for the redirect.
+	 *
+	 * @param createTask creates the task
+	 * @param successMessage the message shown when the task was created
+	 * @param errorPrefix the text the failure's message is appended to when the task could not be created
+	 * @param fragmentRequest whether the request asks for a fragment instead of a redirect
+	 * @param model the model the fragment is rendered from
+	 * @param redirectAttributes attributes for storing flash attributes to be used in a redirect scenario
+	 */
+	static void createFromTaskForm(Runnable createTask, String successMessage, String errorPrefix,
+								   boolean fragmentRequest, Model model, RedirectAttributes redirectAttributes) {
+		try {
+			createTask.run();
+			if (fragmentRequest) {
+				model.addAttribute("successMessage", successMessage);
+				resetTaskForm(model);
+			}
+			else {
+				redirectAttributes.addFlashAttribute("successMessage", successMessage);
+			}
+		}
+		catch (Exception e) {
+			if (fragmentRequest) {
+				model.addAttribute("error", errorPrefix + e.getMessage());
+			}
+			else {
+				redirectAttributes.addFlashAttribute("error", errorPrefix + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Replaces the submitted task in the model with an empty one, together with its binding result,
+	 * so that the task form is rendered empty.
+	 *
+	 * @param model the model the task form is rendered from
+	 */
+	static void resetTaskForm(Model model) {
+		model.asMap().remove(BindingResult.MODEL_KEY_PREFIX + "webTaskDTO");
+		model.addAttribute("webTaskDTO", new WebTaskDTO());
+	}
+
+	/**
+	 * Builds the response downloading an export file, naming the file after its format and wrapping
+	 * the output in a gzip stream if compression was asked for.
+	 *
+	 * @param basename the name of the file without its extension
+	 * @param format the format of the file
+	 * @param gzip whether to compress the file with gzip
+	 * @param body writes the uncompressed file
+	 * @return the response streaming the file
+	 */
+	static ResponseEntity<StreamingResponseBody> exportResponse(String basename, TaskImportFormat format, boolean gzip,
+																StreamingResponseBody body) {
+		String filename = basename + (format == TaskImportFormat.CSV ? ".csv" : ".ndjson");
+		MediaType contentType = format == TaskImportFormat.CSV
+				? new MediaType("text", "csv", StandardCharsets.UTF_8)
+				: new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+		StreamingResponseBody responseBody = body;
+
+		if (gzip) {
+			filename += ".gz";
+			contentType = new MediaType("application", "gzip");
+			responseBody = output -> {
+				GZIPOutputStream compressed = new GZIPOutputStream(output);
+				body.writeTo(compressed);
+				compressed.finish();
+			};
+		}
+
+		return ResponseEntity.ok()
+				.contentType(contentType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+				.body(responseBody);
+	}
 
 }
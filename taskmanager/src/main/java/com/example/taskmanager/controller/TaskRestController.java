@@ -0,0 +1,309 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskIdsDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.service.TaskManagerUserDetails;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.TaskStatusFilter;
+import com.example.taskmanager.service.TaskVersionTracker;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * REST controller exposing the authenticated user's tasks as JSON under /api/v1/tasks.
+ *
+ * Listings are paged with the same cursors as the task pages and can be narrowed to a subset of the
+ * task fields with the fields parameter, e.g. {@code fields=id,taskName,dueDate}. Every response carries
+ * an ETag built from the version of the user's tasks: a GET with a matching If-None-Match is answered
+ * with 304 before any query runs, and a write with an If-Match that no longer matches is refused with
+ * 412. The If-Match check claims the version it matched, so two writes sent with the same tag can not
+ * both go ahead. Writes are bulk operations that take a list of tasks or of task IDs in the request body.
+ */
+@RestController
+@RequestMapping("/api/v1/tasks")
+public class TaskRestController {
+
+	/**
+	 * Maximum number of tasks a single bulk request may create, update or delete.
+	 */
+	private static final int MAX_BULK_SIZE = 1000;
+
+	/**
+	 * The task fields that can be requested, in the order they are written.
+	 */
+	private static final Map<String, Function<TaskDTO, Object>> FIELDS = new LinkedHashMap<>();
+
+	static {
+		FIELDS.put("id", TaskDTO::getId);
+		FIELDS.put("taskName", TaskDTO::getTaskName);
+		FIELDS.put("startDate", TaskDTO::getStartDate);
+		FIELDS.put("dueDate", TaskDTO::getDueDate);
+		FIELDS.put("taskStatus", TaskDTO::isTaskStatus);
+	}
+
+	private final TaskService taskService;
+	private final TaskVersionTracker taskVersionTracker;
+	private final Validator validator;
+
+	/**
+	 * Constructs a new TaskRestController with the given dependencies.
+	 *
+	 * @param taskService the service used for task operations
+	 * @param taskVersionTracker the tracker whose versions tag the responses
+	 * @param validator the validator used to check each task against the WebTaskDTO constraints
+	 */
+	@Autowired
+	public TaskRestController(TaskService taskService, TaskVersionTracker taskVersionTracker, Validator validator) {
+		this.taskService = taskService;
+		this.taskVersionTracker = taskVersionTracker;
+		this.validator = validator;
+	}
+
+	/**
+	 * Lists one page of the user's tasks.
+	 *
+	 * @param status the subset of the user's tasks to list, all of them by default
+	 * @param cursor the cursor of the page to list, or null for the first page
+	 * @param fields the comma separated task fields to include, or null for all of them
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to answer conditional requests
+	 * @return the tasks on the page and the cursor of the next page, or null if a 304 response has been prepared
+	 */
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getTasks(@RequestParam(value = "status", defaultValue = "ALL") TaskStatusFilter status,
+														@RequestParam(value = "cursor", required = false) String cursor,
+														@RequestParam(value = "fields", required = false) String fields,
+														@AuthenticationPrincipal TaskManagerUserDetails userDetails,
+														ServletWebRequest request) {
+		List<String> selectedFields = parseFields(fields);
+		String eTag = taskVersionTracker.getETag(userDetails.getId());
+
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+
+		TaskPageDTO page = taskService.getTaskPageByUserId(userDetails.getId(), status, cursor);
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("tasks", page.getTasks().stream().map(task -> project(task, selectedFields)).toList());
+		body.put("nextCursor", page.getNextCursor());
+
+		return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "private, no-cache").body(body);
+	}
+
+	/**
+	 * Retrieves one of the user's tasks.
+	 *
+	 * @param id the ID of the task
+	 * @param fields the comma separated task fields to include, or null for all of them
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to answer conditional requests
+	 * @return the task, or null if a 304 response has been prepared
+	 * @throws ResponseStatusException with 404 if the task does not exist or belongs to another user
+	 */
+	@GetMapping("/{id}")
+	public ResponseEntity<Map<String, Object>> getTask(@PathVariable int id,
+													   @RequestParam(value = "fields", required = false) String fields,
+													   @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+													   ServletWebRequest request) {
+		List<String> selectedFields = parseFields(fields);
+		String eTag = taskVersionTracker.getETag(userDetails.getId());
+
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+
+		TaskDTO task = taskService.getTaskByIdAndUserId(id, userDetails.getId())
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Task with id : " + id + " not found."));
+
+		return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "private, no-cache").body(project(task, selectedFields));
+	}
+
+	/**
+	 * Creates tasks for the user. The whole request is rejected if any task is invalid or null.
+	 *
+	 * @param webTaskDTOs the tasks to create
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to check If-Match
+	 * @return the created tasks with their IDs
+	 * @throws ResponseStatusException with 400 if the list is empty, too long or holds an invalid task,
+	 *         or with 412 if If-Match does not match the user's tasks
+	 */
+	@PostMapping
+	public ResponseEntity<List<Map<String, Object>>> createTasks(@RequestBody List<WebTaskDTO> webTaskDTOs,
+																 @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+																 ServletWebRequest request) {
+		checkBulkSize(webTaskDTOs);
+
+		List<String> errors = new ArrayList<>();
+		for (int i = 0; i < webTaskDTOs.size(); i++) {
+			if (webTaskDTOs.get(i) == null) {
+				errors.add("[" + i + "] must be a task, not null");
+				continue;
+			}
+			for (ConstraintViolation<WebTaskDTO> violation : validator.validate(webTaskDTOs.get(i))) {
+				errors.add("[" + i + "] " + violation.getPropertyPath() + ": " + violation.getMessage());
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.join("; ", errors));
+		}
+
+		checkIfMatch(userDetails.getId(), request);
+
+		List<TaskDTO> created = taskService.createTasks(webTaskDTOs, userDetails.getId());
+
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.eTag(taskVersionTracker.getETag(userDetails.getId()))
+				.body(created.stream().map(task -> project(task, List.copyOf(FIELDS.keySet()))).toList());
+	}
+
+	/**
+	 * Sets the status of the selected tasks of the user.
+	 *
+	 * @param update the IDs of the tasks and the status to set
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to check If-Match
+	 * @return the number of tasks updated
+	 * @throws ResponseStatusException with 400 if no IDs or no status are given, or too many IDs, or
+	 *         with 412 if If-Match does not match the user's tasks
+	 */
+	@PatchMapping
+	public ResponseEntity<Map<String, Integer>> updateTaskStatus(@RequestBody TaskIdsDTO update,
+																 @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+																 ServletWebRequest request) {
+		checkBulkSize(update.getIds());
+		if (update.getTaskStatus() == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "taskStatus is required");
+		}
+
+		checkIfMatch(userDetails.getId(), request);
+
+		int updated = taskService.setTaskStatus(update.getIds(), userDetails.getId(), update.getTaskStatus()).size();
+
+		return ResponseEntity.ok()
+				.eTag(taskVersionTracker.getETag(userDetails.getId()))
+				.body(Map.of("updated", updated));
+	}
+
+	/**
+	 * Deletes the selected tasks of the user.
+	 *
+	 * @param selection the IDs of the tasks to delete
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to check If-Match
+	 * @return the number of tasks deleted
+	 * @throws ResponseStatusException with 400 if no IDs or too many IDs are given, or with 412 if
+	 *         If-Match does not match the user's tasks
+	 */
+	@DeleteMapping
+	public ResponseEntity<Map<String, Integer>> deleteTasks(@RequestBody TaskIdsDTO selection,
+															@AuthenticationPrincipal TaskManagerUserDetails userDetails,
+															ServletWebRequest request) {
+		checkBulkSize(selection.getIds());
+
+		checkIfMatch(userDetails.getId(), request);
+
+		int deleted = taskService.deleteTasks(selection.getIds(), userDetails.getId()).size();
+
+		return ResponseEntity.ok()
+				.eTag(taskVersionTracker.getETag(userDetails.getId()))
+				.body(Map.of("deleted", deleted));
+	}
+
+	/**
+	 * Checks a write's If-Match header, if it has one, and claims the version it matched.
+	 *
+	 * @param userId the ID of the user whose tasks are about to be written
+	 * @param request the current request
+	 * @throws ResponseStatusException with 412 if If-Match does not match the user's tasks
+	 */
+	private void checkIfMatch(int userId, ServletWebRequest request) {
+		String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+
+		if (ifMatch != null && !taskVersionTracker.compareAndIncrement(userId, ifMatch)) {
+			throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+					"The tasks have changed since " + ifMatch + " was read");
+		}
+	}
+
+	/**
+	 * Parses the fields parameter.
+	 *
+	 * @param fields the comma separated task fields, or null for all of them
+	 * @return the requested fields, in the order they are written
+	 * @throws ResponseStatusException with 400 if an unknown field is requested
+	 */
+	private List<String> parseFields(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return List.copyOf(FIELDS.keySet());
+		}
+
+		List<String> requested = Arrays.stream(fields.split(",")).map(String::trim).toList();
+		for (String field : requested) {
+			if (!FIELDS.containsKey(field)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Unknown field '" + field + "', expected one of " + FIELDS.keySet());
+			}
+		}
+
+		return FIELDS.keySet().stream().filter(requested::contains).toList();
+	}
+
+	/**
+	 * Copies the selected fields of a task into a map that is written as a JSON object.
+	 *
+	 * @param task the task to copy
+	 * @param fields the fields to copy
+	 * @return the selected fields by name
+	 */
+	private Map<String, Object> project(TaskDTO task, List<String> fields) {
+		Map<String, Object> projection = new LinkedHashMap<>();
+		for (String field : fields) {
+			projection.put(field, FIELDS.get(field).apply(task));
+		}
+
+		return projection;
+	}
+
+	/**
+	 * Checks that a bulk request names at least one and at most {@code MAX_BULK_SIZE} items.
+	 *
+	 * @param items the items of the request
+	 * @throws ResponseStatusException with 400 if there are no items or too many
+	 */
+	private void checkBulkSize(List<?> items) {
+		if (items == null || items.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one task is required");
+		}
+		if (items.size() > MAX_BULK_SIZE) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"At most " + MAX_BULK_SIZE + " tasks can be handled in one request");
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.example.taskmanager.controller;
 
+import com.example.taskmanager.config.PasswordHashingRejectedException;
 import com.example.taskmanager.dto.UserDTO;
 import com.example.taskmanager.dto.WebUserDTO;
 import com.example.taskmanager.service.UserService;
@@ -17,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Controller
 @RequestMapping("/user")
@@ -64,6 +67,8 @@ public class UserController {
 			userService.registerUser(webUserDTO);
 			redirectAttributes.addFlashAttribute("successMessage", "User registered successfully.");
 			return "redirect:/login";
+		} catch (PasswordHashingRejectedException e) {
+			throw e;
 		} catch (Exception e) {
 			redirectAttributes.addFlashAttribute("error", "Registration Failed " + e.getMessage());
 			return "register-new-user";
@@ -105,44 +110,47 @@ public class UserController {
 	 * Updates the password of a user based on the provided WebUserDTO.
 	 * <p>
 	 * This method validates the incoming password data, checks for matching passwords,
-	 * and performs the password update if valid. It then redirects to the dashboard with
+	 * and performs the password update if valid. The password is hashed without holding the
+	 * request thread, and once it is saved the user is redirected to the dashboard with
 	 * appropriate success or error messages.
 	 *
 	 * @param webUserDTO         the DTO containing web user password information to be updated
 	 * @param bindingResult      the binding result holding validation errors if any
 	 * @param redirectAttributes the attributes used for redirecting with flash messages
-	 * @return a string representing the view name or redirect URL to the dashboard
+	 * @return a future completed with a string representing the view name or redirect URL to the dashboard
 	 */
 	@PatchMapping("/update-password")
-	public String updatePassword(@Validated(OnPasswordUpdate.class) @ModelAttribute("webUserDTO") WebUserDTO webUserDTO,
-								 BindingResult bindingResult,
-								 RedirectAttributes redirectAttributes) {
+	public CompletableFuture<String> updatePassword(@Validated(OnPasswordUpdate.class) @ModelAttribute("webUserDTO") WebUserDTO webUserDTO,
+													BindingResult bindingResult,
+													RedirectAttributes redirectAttributes) {
 
 		if (!webUserDTO.getPassword().equals(webUserDTO.getPasswordConfirmation())) {
 			bindingResult.rejectValue("passwordConfirmation", null, "Passwords do not match.");
 		}
 
 		if (bindingResult.hasErrors()) {
-			return "update-password-form";
+			return CompletableFuture.completedFuture("update-password-form");
 		}
 
-
-		Optional<UserDTO> updatedUser;
-		try {
-
-			updatedUser = userService.updatePassword(webUserDTO);
-		} catch (Exception e) {
-			redirectAttributes.addFlashAttribute("error", e.getMessage());
-			return "redirect:/update-password";
-		}
-
-		if (updatedUser.isEmpty()) {
-			redirectAttributes.addFlashAttribute("error", "Error while updating password");
-			return "redirect:/dashboard";
-		}
-
-		redirectAttributes.addFlashAttribute("successMessage", "Password successfully updated.");
-		return "redirect:/dashboard";
+		return userService.updatePassword(webUserDTO)
+				.thenApply(updatedUser -> {
+					if (updatedUser.isEmpty()) {
+						redirectAttributes.addFlashAttribute("error", "Error while updating password");
+						return "redirect:/dashboard";
+					}
+
+					redirectAttributes.addFlashAttribute("successMessage", "Password successfully updated.");
+					return "redirect:/dashboard";
+				})
+				.exceptionally(e -> {
+					Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+					if (!(cause instanceof IllegalArgumentException)) {
+						throw new CompletionException(cause);
+					}
+
+					redirectAttributes.addFlashAttribute("error", cause.getMessage());
+					return "redirect:/update-password";
+				});
 	}
 
 
@@ -1,18 +1,28 @@
 package com.example.taskmanager.controller;
 
-import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.DashboardSnapshotDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
 import com.example.taskmanager.dto.WebTaskDTO;
 import com.example.taskmanager.dto.WebUserDTO;
 import com.example.taskmanager.entity.User;
+import com.example.taskmanager.service.DashboardSnapshotCache;
+import com.example.taskmanager.service.TaskManagerUserDetails;
 import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.TaskStatsService;
+import com.example.taskmanager.service.TaskStatusFilter;
+import com.example.taskmanager.service.TaskVersionTracker;
 import com.example.taskmanager.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
-
-import java.util.List;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
 
 /**
@@ -27,16 +37,26 @@ public class ViewController {
 
 	private final TaskService taskService;
 	private final UserService userService;
+	private final TaskVersionTracker taskVersionTracker;
+	private final TaskStatsService taskStatsService;
+	private final DashboardSnapshotCache dashboardSnapshotCache;
 
 	/**
 	 * Constructs a new {@code ViewController} with the specified services.
 	 *
 	 * @param taskService the service responsible for handling task-related operations
 	 * @param userService the service responsible for handling user-related operations
+	 * @param taskVersionTracker the tracker whose versions tag the task pages
+	 * @param taskStatsService the service providing the task counts shown on the dashboard
+	 * @param dashboardSnapshotCache the cache of what recently shown dashboards read from the database
 	 */
-	public ViewController(TaskService taskService, UserService userService) {
+	public ViewController(TaskService taskService, UserService userService, TaskVersionTracker taskVersionTracker,
+						  TaskStatsService taskStatsService, DashboardSnapshotCache dashboardSnapshotCache) {
 		this.taskService = taskService;
 		this.userService = userService;
+		this.taskVersionTracker = taskVersionTracker;
+		this.taskStatsService = taskStatsService;
+		this.dashboardSnapshotCache = dashboardSnapshotCache;
 	}
 
 	/**
@@ -92,27 +112,46 @@ public class ViewController {
 	 * Displays the user dashboard page if the user is authenticated. Redirects to the login page if the user is not authenticated.
 	 * If the user has an admin role, redirects to the admin dashboard instead.
 	 *
+	 * Tasks are shown one page at a time; the cursor identifies the last task of the previous page. Only the
+	 * pending tasks are shown unless another status filter is requested. A browser whose copy of the page
+	 * is still current gets a 304 response without the tasks being loaded. The page carries the ETag of the
+	 * tasks it shows, so it can tell whether a tasks-changed event from /task/events concerns it. The user's
+	 * task counts are read from their stored totals, so showing them does not count any tasks. A page shown
+	 * again before the user's tasks change is served from the {@link DashboardSnapshotCache} without a query.
+	 *
+	 * @param status the subset of the user's tasks to show
+	 * @param cursor the cursor of the page to display, or null for the first page
 	 * @param model the model to which task data is added
-	 * @param authentication the authentication object containing user details and roles
+	 * @param userDetails the authenticated user's details, carrying the user's ID and roles
+	 * @param request the current request, used to answer conditional requests
 	 * @return the view name of the user dashboard or redirection to the appropriate page based on the user's role and authentication status
 	 */
 	@GetMapping("/dashboard")
-	public String showUserDashboard(Model model, Authentication authentication) {
-		if (authentication == null || !authentication.isAuthenticated()) {
+	public String showUserDashboard(@RequestParam(value = "status", defaultValue = "PENDING") TaskStatusFilter status,
+									@RequestParam(value = "cursor", required = false) String cursor,
+									Model model, @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+									ServletWebRequest request) {
+		if (userDetails == null) {
 			return "redirect:/login";
 		}
 
-		UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-
 		if (userDetails.getAuthorities().stream().anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"))) {
 			return "redirect:/admin/dashboard";
 		}
 
-		int id = userService.getUserByUsername(userDetails.getUsername()).getId();
+		if (isNotModified(userDetails, request)) {
+			return null;
+		}
 
-		List<TaskDTO> tasks = taskService.getTasksByUserId(id);
+		DashboardSnapshotDTO snapshot = dashboardSnapshotCache.get(userDetails.getId(), status, cursor,
+				() -> DashboardSnapshotDTO.builder()
+						.page(taskService.getTaskPageByUserId(userDetails.getId(), status, cursor))
+						.taskStats(taskStatsService.getTaskStats(userDetails.getId()))
+						.build());
 
-		model.addAttribute("tasks", tasks);
+		addPageAttributes(model, snapshot.getPage(), status, cursor);
+		model.addAttribute("taskStats", snapshot.getTaskStats());
+		model.addAttribute("taskETag", taskVersionTracker.getETag(userDetails.getId()));
 
 		return "user-dashboard";
 	}
@@ -129,55 +168,75 @@ public class ViewController {
 		return "create-task";
 	}
 
+	/**
+	 * Displays the page for importing tasks from a CSV or NDJSON file.
+	 *
+	 * @return the name of the view for importing tasks
+	 */
+	@GetMapping("/import-tasks")
+	public String showImportTasksPage() {
+		return "import-tasks";
+	}
+
 	/**
 	 * Handles requests to show the delete tasks page for the authenticated user.
 	 *
-	 * @param model          The model to which the list of tasks will be added.
-	 * @param authentication Provides the authentication object containing details about the user.
+	 * @param status         The subset of the user's tasks to show, all of them by default.
+	 * @param cursor         The cursor of the page to display, or null for the first page.
+	 * @param model          The model to which the page of tasks will be added.
+	 * @param userDetails    The authenticated user's details, carrying the user's ID.
+	 * @param request        The current request, used to answer conditional requests.
 	 * @return A string representing the name of the view to display.
 	 */
 	@GetMapping("/delete-tasks")
-	private String showDeleteTasksPage(Model model, Authentication authentication) {
+	private String showDeleteTasksPage(@RequestParam(value = "status", defaultValue = "ALL") TaskStatusFilter status,
+									   @RequestParam(value = "cursor", required = false) String cursor,
+									   Model model, @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+									   ServletWebRequest request) {
 
-		if (authentication == null || !authentication.isAuthenticated()) {
+		if (userDetails == null) {
 			return "redirect:/login";
 		}
-		UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-		String username = userDetails.getUsername();
-		User user = userService.getUserByUsername(username);
-		int userId = user.getId();
-		List<TaskDTO> tasks = taskService.getTasksByUserId(userId);
-		model.addAttribute("tasks", tasks);
+		if (isNotModified(userDetails, request)) {
+			return null;
+		}
+
+		TaskPageDTO page = taskService.getTaskPageByUserId(userDetails.getId(), status, cursor);
+		addPageAttributes(model, page, status, cursor);
 		return "delete-tasks";
 	}
 
 	/**
 	 * Displays the page to update task statuses for the authenticated user.
 	 *
-	 * This method fetches the tasks for the currently authenticated user and adds them to the model.
+	 * This method fetches one page of tasks for the currently authenticated user and adds them to the model.
 	 * If the user is not authenticated, it redirects to the login page.
 	 *
+	 * @param status the subset of the user's tasks to show, all of them by default
+	 * @param cursor the cursor of the page to display, or null for the first page
 	 * @param model the model object to add attributes to, for rendering the view
-	 * @param authentication the authentication object containing the user's authentication details
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request, used to answer conditional requests
 	 * @return the name of the view to render, or a redirection to the login page if the user is not authenticated
 	 */
 	@GetMapping("/update-task-status")
-	public String showUpdateTaskStatusPage(Model model, Authentication authentication) {
+	public String showUpdateTaskStatusPage(@RequestParam(value = "status", defaultValue = "ALL") TaskStatusFilter status,
+										   @RequestParam(value = "cursor", required = false) String cursor,
+										   Model model, @AuthenticationPrincipal TaskManagerUserDetails userDetails,
+									   ServletWebRequest request) {
 
-		if (authentication == null || !authentication.isAuthenticated()) {
+		if (userDetails == null) {
 			return "redirect:/login";
 		}
-		UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-		String username = userDetails.getUsername();
-		User user = userService.getUserByUsername(username);
-		List<TaskDTO> tasks = taskService.getTasksByUserId(user.getId());
-		model.addAttribute("tasks", tasks);
 
-		for (TaskDTO task : tasks) {
-			System.out.println(task.toString());
+		if (isNotModified(userDetails, request)) {
+			return null;
 		}
 
+		TaskPageDTO page = taskService.getTaskPageByUserId(userDetails.getId(), status, cursor);
+		addPageAttributes(model, page, status, cursor);
+
 		return "update-task-status";
 	}
 
@@ -229,6 +288,41 @@ public class ViewController {
 		return "update-password-form";
 	}
 
+	/**
+	 * Answers a conditional GET for one of the user's task pages.
+	 *
+	 * The ETag is built from the in-memory version of the user's tasks, so no query is run to check it.
+	 * The page may then be kept by the browser, which revalidates it on every use. A page that shows a
+	 * flash message is always rendered and never tagged, since the message is only shown once.
+	 *
+	 * @param userDetails the authenticated user's details, carrying the user's ID
+	 * @param request the current request
+	 * @return true if the browser's copy is current and a 304 response has been prepared
+	 */
+	private boolean isNotModified(TaskManagerUserDetails userDetails, ServletWebRequest request) {
+		if (!CollectionUtils.isEmpty(RequestContextUtils.getInputFlashMap(request.getRequest()))) {
+			return false;
+		}
 
+		request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+		return request.checkNotModified(taskVersionTracker.getETag(userDetails.getId(), request.getSessionId()));
+	}
+
+	/**
+	 * Adds a page of tasks, the status filters and the cursors needed for the filter and page navigation
+	 * links to the model.
+	 *
+	 * @param model the model to add the attributes to
+	 * @param page the page of tasks being displayed
+	 * @param status the status filter the page was requested with
+	 * @param cursor the cursor the page was requested with, or null for the first page
+	 */
+	private void addPageAttributes(Model model, TaskPageDTO page, TaskStatusFilter status, String cursor) {
+		model.addAttribute("tasks", page.getTasks());
+		model.addAttribute("nextCursor", page.getNextCursor());
+		model.addAttribute("cursor", cursor);
+		model.addAttribute("status", status);
+		model.addAttribute("statusFilters", TaskStatusFilter.values());
+	}
 
 }
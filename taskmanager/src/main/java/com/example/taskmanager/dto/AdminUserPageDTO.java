@@ -0,0 +1,27 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of the admin user listing.
+ *
+ * Fields:
+ * - users: The users on the page, ordered by username.
+ * - nextCursor: The token to request the following page with, or null if this is the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminUserPageDTO {
+
+	private List<AdminUserSummaryDTO> users;
+
+	private String nextCursor;
+
+}
@@ -0,0 +1,66 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one row of the admin user listing.
+ *
+ * Fields:
+ * - id: The unique identifier of the user.
+ * - username: The username of the user.
+ * - firstName: The first name of the user.
+ * - lastName: The last name of the user.
+ * - email: The email address of the user.
+ * - roleNames: The names of the roles assigned to the user.
+ * - pendingCount: The number of the user's tasks that are not completed, including overdue ones.
+ * - completedCount: The number of the user's tasks that are completed.
+ * - overdueCount: The number of the user's pending tasks whose due date has passed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminUserSummaryDTO {
+
+	private int id;
+
+	private String username;
+
+	private String firstName;
+
+	private String lastName;
+
+	private String email;
+
+	private List<String> roleNames;
+
+	private long pendingCount;
+
+	private long completedCount;
+
+	private long overdueCount;
+
+	/**
+	 * Creates a summary without its role names. The grouped summary query uses this constructor in a
+	 * JPQL constructor expression; role names are added afterwards with one query for the whole page.
+	 *
+	 * @param id the identifier of the user
+	 * @param username the username of the user
+	 * @param firstName the first name of the user
+	 * @param lastName the last name of the user
+	 * @param email the email address of the user
+	 * @param pendingCount the number of pending tasks
+	 * @param completedCount the number of completed tasks
+	 * @param overdueCount the number of overdue tasks
+	 */
+	public AdminUserSummaryDTO(int id, String username, String firstName, String lastName, String email,
+							   long pendingCount, long completedCount, long overdueCount) {
+		this(id, username, firstName, lastName, email, List.of(), pendingCount, completedCount, overdueCount);
+	}
+
+}
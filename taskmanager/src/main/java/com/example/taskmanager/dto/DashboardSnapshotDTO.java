@@ -0,0 +1,26 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) holding what the user dashboard shows from the database: one page of
+ * the user's tasks and the user's task counts.
+ *
+ * Fields:
+ * - page: The page of tasks shown, with the cursor of the next page.
+ * - taskStats: The user's pending, completed and overdue task counts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSnapshotDTO {
+
+	private TaskPageDTO page;
+
+	private TaskStatsDTO taskStats;
+
+}
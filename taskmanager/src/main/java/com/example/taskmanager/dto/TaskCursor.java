@@ -0,0 +1,62 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position of the last task shown on a page of a keyset-paginated task listing.
+ *
+ * Tasks are ordered by (dueDate, id). The next page starts strictly after this
+ * position, so the database can seek straight to it through the
+ * (user_id, ..., due_date, id) indexes instead of skipping over earlier rows.
+ *
+ * A cursor is exchanged with the browser as an opaque token of the form
+ * {@code <dueDate>_<id>}, where the due date is empty for tasks without one.
+ */
+@Data
+@AllArgsConstructor
+public class TaskCursor {
+
+	private LocalDate dueDate;
+
+	private int id;
+
+	/**
+	 * Encodes this cursor as a token that can be passed in a query string.
+	 *
+	 * @return the token representing this cursor
+	 */
+	public String toToken() {
+		return (dueDate == null ? "" : dueDate.toString()) + "_" + id;
+	}
+
+	/**
+	 * Decodes a token produced by {@link #toToken()}.
+	 *
+	 * @param token the token to decode, may be null or blank for the first page
+	 * @return the decoded cursor, or null if the token is null or blank
+	 * @throws IllegalArgumentException if the token is not a valid cursor
+	 */
+	public static TaskCursor fromToken(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+
+		int separator = token.lastIndexOf('_');
+		if (separator < 0) {
+			throw new IllegalArgumentException("Invalid task cursor: " + token);
+		}
+
+		try {
+			String datePart = token.substring(0, separator);
+			LocalDate dueDate = datePart.isEmpty() ? null : LocalDate.parse(datePart);
+			int id = Integer.parseInt(token.substring(separator + 1));
+			return new TaskCursor(dueDate, id);
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid task cursor: " + token, e);
+		}
+	}
+}
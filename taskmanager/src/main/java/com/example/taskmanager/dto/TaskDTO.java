@@ -3,6 +3,7 @@ package com.example.taskmanager.dto;
 
 import com.example.taskmanager.entity.Task;
 import com.example.taskmanager.entity.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PastOrPresent;
@@ -48,8 +49,23 @@ public class TaskDTO {
 	@Future(message = "Due date must be later date")
 	private LocalDate dueDate;
 
+	@JsonIgnore
 	private User user;
 
 	private boolean taskStatus;
 
+	/**
+	 * Creates a TaskDTO without its user. Read queries use this constructor in JPQL constructor
+	 * expressions to build DTOs straight from the selected columns, without loading Task entities.
+	 *
+	 * @param id the identifier of the task
+	 * @param taskName the name of the task
+	 * @param startDate the start date of the task
+	 * @param dueDate the due date of the task, may be null
+	 * @param taskStatus whether the task is completed
+	 */
+	public TaskDTO(int id, String taskName, LocalDate startDate, LocalDate dueDate, boolean taskStatus) {
+		this(id, taskName, startDate, dueDate, null, taskStatus);
+	}
+
 }
@@ -0,0 +1,41 @@
+package com.example.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) representing one row of a task export.
+ *
+ * Export rows are read straight from a query as DTOs, so they are never managed by the persistence
+ * context. The properties after the username are those the task import reads, so an exported file
+ * can be imported again.
+ *
+ * Fields:
+ * - username: The username of the user who owns the task.
+ * - taskName: The name of the task.
+ * - startDate: The date when the task starts or started.
+ * - dueDate: The date by which the task should be completed, or null if it has none.
+ * - taskStatus: The status of the task, indicating whether it is completed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonPropertyOrder({"username", "taskName", "startDate", "dueDate", "taskStatus"})
+public class TaskExportDTO {
+
+	private String username;
+
+	private String taskName;
+
+	private LocalDate startDate;
+
+	private LocalDate dueDate;
+
+	private boolean taskStatus;
+}
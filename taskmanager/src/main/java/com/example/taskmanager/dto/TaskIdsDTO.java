@@ -0,0 +1,27 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a bulk request of the task API that selects tasks by their IDs.
+ *
+ * Fields:
+ * - ids: The IDs of the tasks the request applies to. IDs of tasks owned by another user are ignored.
+ * - taskStatus: The status to set on the tasks, for status updates; true for completed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskIdsDTO {
+
+	private List<Integer> ids;
+
+	private Boolean taskStatus;
+
+}
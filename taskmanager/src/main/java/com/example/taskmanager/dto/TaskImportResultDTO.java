@@ -0,0 +1,34 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarising the outcome of a task import.
+ *
+ * Fields:
+ * - importedCount: The number of rows that were written as new tasks.
+ * - failedCount: The number of rows that were rejected.
+ * - errors: A description of each rejected row, prefixed with its line number. Only the first
+ *   rejected rows are described so that the report stays small for very large files.
+ * - errorsTruncated: Whether more rows were rejected than are described in errors.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskImportResultDTO {
+
+	private int importedCount;
+
+	private int failedCount;
+
+	private List<String> errors;
+
+	private boolean errorsTruncated;
+
+}
@@ -0,0 +1,27 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of a user's tasks.
+ *
+ * Fields:
+ * - tasks: The tasks on this page, ordered by due date and then id.
+ * - nextCursor: Token for the page that follows this one, or null if this is the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskPageDTO {
+
+	private List<TaskDTO> tasks;
+
+	private String nextCursor;
+
+}
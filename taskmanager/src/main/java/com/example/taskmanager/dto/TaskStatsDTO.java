@@ -0,0 +1,28 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) holding the task counts of a user, as shown on the dashboards.
+ *
+ * Fields:
+ * - pendingCount: The number of the user's tasks that are not completed, including overdue ones.
+ * - completedCount: The number of the user's tasks that are completed.
+ * - overdueCount: The number of the user's pending tasks whose due date has passed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskStatsDTO {
+
+	private long pendingCount;
+
+	private long completedCount;
+
+	private long overdueCount;
+
+}
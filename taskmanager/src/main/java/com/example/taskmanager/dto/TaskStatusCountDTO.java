@@ -0,0 +1,31 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) holding how many of a set of tasks share a status and due date, read
+ * before a bulk change so the user's task counts can be adjusted by the tasks it touches.
+ *
+ * Fields:
+ * - taskStatus: The status of the tasks, true for completed.
+ * - dueDate: The due date of the tasks, may be null.
+ * - count: The number of tasks with this status and due date.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskStatusCountDTO {
+
+	private boolean taskStatus;
+
+	private LocalDate dueDate;
+
+	private long count;
+
+}
@@ -0,0 +1,33 @@
+package com.example.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing the changes to a user's tasks since a sync token.
+ *
+ * Fields:
+ * - changed: The tasks created or changed since the token, in the order they were changed.
+ * - deleted: The IDs of the tasks deleted since the token.
+ * - token: The token to pass to the next sync, or null on a page of a full sync that is not the last.
+ * - nextCursor: The cursor of the next page of a full sync, or null if there are no more pages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskSyncDTO {
+
+	private List<TaskDTO> changed;
+
+	private List<Integer> deleted;
+
+	private String token;
+
+	private String nextCursor;
+
+}
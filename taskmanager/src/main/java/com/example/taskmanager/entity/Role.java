@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents a role entity in the system.
@@ -17,9 +19,11 @@ import lombok.NoArgsConstructor;
  * Roles are identified uniquely by their ID and have a name attribute to
  * specify the type of role, such as "ADMIN", "USER", etc.
  *
- * This entity is managed by JPA and mapped to a database table named "roles".
+ * This entity is managed by JPA and mapped to a database table named "roles". Roles are kept in the
+ * second-level cache, since they are read on every registration and admin edit but almost never change.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,12 +16,15 @@ import java.time.LocalDate;
  * and the user to whom the task is assigned. This entity is managed by JPA and mapped to a database table named "task".
  *
  * Fields:
- * - id: Unique identifier for the task.
+ * - id: Unique identifier for the task. Ids are handed out in blocks from the id_sequences table, so
+ *   inserts can be batched and ids stay ordered by creation time on each application instance.
  * - taskName: Name of the task. It must not be blank and should be 255 characters or less.
  * - startDate: The date when the task started or will start. It must not be null and can be a past or present date.
  * - dueDate: The date by which the task should be completed. It must be a future date.
  * - taskStatus: Status of the task, indicating whether it is completed.
  * - user: The user to whom the task is assigned. This field establishes a many-to-one relationship with the User entity.
+ * - changeSeq: The change sequence number of the transaction that created or last changed the task, drawn from
+ *   {@code TaskChangeSequence} and used by the sync API to find changed tasks. Every write must set it.
  */
 @Entity
 @Data
@@ -32,7 +35,9 @@ import java.time.LocalDate;
 public class Task {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "task_id_generator")
+	@TableGenerator(name = "task_id_generator", table = "id_sequences", pkColumnName = "sequence_name",
+			valueColumnName = "next_val", pkColumnValue = "task", allocationSize = 50)
 	@Column(name = "id")
 	private int id;
 
@@ -56,6 +61,8 @@ public class Task {
 	@JoinColumn(name = "user_id")
 	private User user;
 
+	@Column(name = "change_seq", nullable = false)
+	private long changeSeq;
 
 
 
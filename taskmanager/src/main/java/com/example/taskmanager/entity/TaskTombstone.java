@@ -0,0 +1,46 @@
+package com.example.taskmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Records the deletion of a task, so the sync API can tell clients which tasks to remove.
+ *
+ * Task ids are never reused, so the id of the deleted task identifies the tombstone. Tombstones are
+ * kept for a retention period and then purged; a client that has not synced for longer than that has
+ * to download its task list again.
+ *
+ * Fields:
+ * - taskId: The id of the deleted task.
+ * - userId: The id of the user who owned the task.
+ * - deletedAt: When the task was deleted, used to purge old tombstones.
+ * - changeSeq: The change sequence number of the transaction that deleted the task, used by the sync API to
+ *   find deletions.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "task_tombstone")
+public class TaskTombstone {
+
+	@Id
+	@Column(name = "task_id")
+	private int taskId;
+
+	@Column(name = "user_id", nullable = false)
+	private int userId;
+
+	@Column(name = "deleted_at", nullable = false)
+	private Instant deletedAt;
+
+	@Column(name = "change_seq", nullable = false)
+	private long changeSeq;
+
+}
@@ -8,6 +8,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.List;
 import java.util.Set;
@@ -18,8 +22,12 @@ import java.util.Set;
  * The User entity holds essential details about a user, including their username, first name, last name,
  * email, password, and roles. This entity is managed by JPA and mapped to a database table named "users".
  *
+ * Users and their roles are kept in the second-level cache, and the username is a cached natural id, so
+ * looking a user up by username usually needs no query. Changes made through the entity manager update
+ * the cache; bulk statements against the users table must not be used.
+ *
  * Fields:
- * - id: Unique identifier for the user.
+ * - id: Unique identifier for the user, allocated in blocks from the "users" row of the id_sequences table.
  * - username: Unique username of the user. It must be between 2 to 45 characters.
  * - firstName: First name of the user. It must be between 1 to 45 characters.
  * - lastName: Last name of the user. It must be between 1 to 45 characters.
@@ -28,6 +36,7 @@ import java.util.Set;
  * - enabled: Indicates whether the user is enabled. Defaults to true.
  * - tasks: List of tasks associated with the user. It establishes a one-to-many relationship with the Task entity.
  * - roles: Set of roles assigned to the user. It establishes a many-to-many relationship with the Role entity.
+ *   Roles are loaded lazily; code paths that need them fetch them with the user, see UserRepository.findWithRolesByUsername.
  */
 @Entity
 @Data
@@ -35,15 +44,20 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id_generator")
+	@TableGenerator(name = "user_id_generator", table = "id_sequences", pkColumnName = "sequence_name",
+			valueColumnName = "next_val", pkColumnValue = "users", allocationSize = 50)
 	@Column(name = "id")
 	private int id;
 
 
 
+	@NaturalId(mutable = true)
 	@Column(name = "username", unique = true)
 	private String username;
 
@@ -69,7 +83,8 @@ public class User {
 			CascadeType.REFRESH, CascadeType.PERSIST, CascadeType.REMOVE} )
 	private List<Task> tasks;
 
-	@ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.DETACH, CascadeType.MERGE,
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.DETACH, CascadeType.MERGE,
 				CascadeType.REFRESH, CascadeType.PERSIST})
 	@JoinTable(
 			name = "user_roles",
@@ -0,0 +1,48 @@
+package com.example.taskmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds the task counts of one user, so they can be shown without counting the user's tasks.
+ *
+ * The counts are kept up to date by the task service, which adjusts them in the same transaction as
+ * every change to the user's tasks. Whether a pending task is overdue depends on the date as well, so
+ * the counts are also recounted from the task table every night shortly after midnight.
+ *
+ * Fields:
+ * - userId: The id of the user the counts belong to.
+ * - pendingCount: The number of the user's tasks that are not completed, including overdue ones.
+ * - completedCount: The number of the user's tasks that are completed.
+ * - overdueCount: The number of the user's pending tasks whose due date has passed.
+ * - changeSeq: The last change sequence number drawn for the user's tasks by {@code TaskChangeSequence}.
+ *   Drawing a number locks the row until the drawing transaction ends, which orders the user's writes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "user_task_stats")
+public class UserTaskStats {
+
+	@Id
+	@Column(name = "user_id")
+	private int userId;
+
+	@Column(name = "pending_count", nullable = false)
+	private long pendingCount;
+
+	@Column(name = "completed_count", nullable = false)
+	private long completedCount;
+
+	@Column(name = "overdue_count", nullable = false)
+	private long overdueCount;
+
+	@Column(name = "change_seq", nullable = false)
+	private long changeSeq;
+
+}
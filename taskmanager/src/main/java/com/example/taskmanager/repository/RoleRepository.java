@@ -1,9 +1,12 @@
 package com.example.taskmanager.repository;
 
 import com.example.taskmanager.entity.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,12 +17,26 @@ public interface RoleRepository extends CrudRepository<Role, Integer> {
 
 	/**
 	 * Retrieves a Role entity from the database based on its name.
+	 * The result is kept in the query cache until the roles table changes.
 	 *
 	 * @param name the name of the role to be retrieved.
 	 * @return an Optional containing the Role if found, or an empty Optional if not found.
 	 */
 	@Query("SELECT r from Role r WHERE r.name = :name")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	Optional<Role> findByName(String name);
 
+	/**
+	 * Retrieves all Role entities, ordered by ID.
+	 *
+	 * The result is kept in the query cache, and the roles themselves in the second-level cache,
+	 * until the roles table changes.
+	 *
+	 * @return a list of all roles
+	 */
+	@Query("SELECT r FROM Role r ORDER BY r.id")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	List<Role> findAllRoles();
+
 
 }
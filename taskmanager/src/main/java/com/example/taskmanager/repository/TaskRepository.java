@@ -1,14 +1,24 @@
 package com.example.taskmanager.repository;
 
 import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskExportDTO;
+import com.example.taskmanager.dto.TaskStatusCountDTO;
 import com.example.taskmanager.entity.Task;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Task entities.
@@ -16,6 +26,12 @@ import java.util.Optional;
  */
 public interface TaskRepository extends CrudRepository<Task, Integer> {
 
+    /**
+     * Number of rows fetched from the database at a time by the streaming queries. With MySQL this
+     * only takes effect with useCursorFetch=true on the datasource URL.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds a Task entity based on its start date.
      *
@@ -43,4 +59,284 @@ public interface TaskRepository extends CrudRepository<Task, Integer> {
     @Query("SELECT t FROM Task t WHERE t.user.id = :userId")
     List<Task> findTasksByUserId(@Param("userId") int id);
 
+    /**
+     * Retrieves the tasks of a specific user as DTOs, without loading Task entities.
+     *
+     * @param id the ID of the user whose tasks are to be fetched
+     * @return the user's tasks, ordered by id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId ORDER BY t.id")
+    List<TaskDTO> findTaskDTOsByUserId(@Param("userId") int id);
+
+    /**
+     * Retrieves one task of a specific user as a DTO, without loading the Task entity.
+     *
+     * @param id the ID of the task
+     * @param userId the ID of the user who must own the task
+     * @return the task, or an empty Optional if it does not exist or belongs to another user
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TaskDTO> findTaskDTOByIdAndUserId(@Param("id") int id, @Param("userId") int userId);
+
+    /**
+     * Retrieves the ID of the user who owns a task, without loading the Task entity.
+     *
+     * @param id the ID of the task
+     * @return the owner's ID, or an empty Optional if the task does not exist
+     */
+    @Query("SELECT t.user.id FROM Task t WHERE t.id = :id")
+    Optional<Integer> findUserIdById(@Param("id") int id);
+
+    /**
+     * Retrieves a task with a locking read, which returns its latest committed state and keeps its row
+     * locked until the transaction ends.
+     *
+     * @param id the ID of the task
+     * @return the task, or an empty Optional if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> findForUpdateById(@Param("id") int id);
+
+    /**
+     * Retrieves the tasks of the user with the given username as DTOs, joining on the owner's username
+     * so the user's ID does not have to be looked up first.
+     *
+     * @param username the username of the user whose tasks are to be fetched
+     * @return the user's tasks, ordered by id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.username = :username ORDER BY t.id")
+    List<TaskDTO> findTaskDTOsByUsername(@Param("username") String username);
+
+    /**
+     * Streams the tasks of the user with the given username as DTOs. The rows are fetched from the
+     * database in blocks of STREAM_FETCH_SIZE as the stream is consumed; DTOs are not managed, so the
+     * persistence context does not grow with the stream. Must be called inside a transaction.
+     *
+     * @param username the username of the user whose tasks are streamed
+     * @return the user's tasks, ordered by id; the stream must be closed after use
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.username = :username ORDER BY t.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    Stream<TaskDTO> streamTaskDTOsByUsername(@Param("username") String username);
+
+    /**
+     * Streams the tasks of a user as export rows, fetched STREAM_FETCH_SIZE rows at a time. Must be
+     * called inside a transaction.
+     *
+     * @param userId the ID of the user whose tasks are streamed
+     * @return the user's tasks, ordered by id; the stream must be closed after use
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskExportDTO(u.username, t.taskName, t.startDate, t.dueDate, t.taskStatus) " +
+            "FROM Task t JOIN t.user u WHERE u.id = :userId ORDER BY t.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    Stream<TaskExportDTO> streamTaskExportsByUserId(@Param("userId") int userId);
+
+    /**
+     * Streams the tasks of every user as export rows, fetched STREAM_FETCH_SIZE rows at a time. Must be
+     * called inside a transaction.
+     *
+     * @return all tasks, ordered by id; the stream must be closed after use
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskExportDTO(u.username, t.taskName, t.startDate, t.dueDate, t.taskStatus) " +
+            "FROM Task t JOIN t.user u ORDER BY t.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    Stream<TaskExportDTO> streamAllTaskExports();
+
+    /*
+     * Keyset pagination queries.
+     *
+     * Pages are ordered by (dueDate, id) and start strictly after the cursor position, so each
+     * page is an index seek on task(user_id, due_date, id) or task(user_id, task_status, due_date, id)
+     * no matter how deep the user pages. Tasks without a due date sort first (MySQL orders NULLs
+     * first in ascending order), which is why a cursor on a NULL due date needs its own query shape.
+     * The Pageable only carries the page size; it must not carry a sort. Rows are read straight
+     * into TaskDTOs, so listing a page never loads or snapshots Task entities.
+     */
+
+    /**
+     * Retrieves a page of a user's tasks that come after a task without a due date.
+     * Passing an afterId of 0 returns the first page.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param afterId the ID of the last task on the previous page
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId " +
+            "AND ((t.dueDate IS NULL AND t.id > :afterId) OR t.dueDate IS NOT NULL) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findTaskPageByUserIdAfterNullDueDate(@Param("userId") int userId,
+                                                       @Param("afterId") int afterId,
+                                                       Pageable pageable);
+
+    /**
+     * Retrieves a page of a user's tasks that come after the task at the given position.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param afterDueDate the due date of the last task on the previous page
+     * @param afterId the ID of the last task on the previous page
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId " +
+            "AND (t.dueDate > :afterDueDate OR (t.dueDate = :afterDueDate AND t.id > :afterId)) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findTaskPageByUserIdAfterDueDate(@Param("userId") int userId,
+                                                   @Param("afterDueDate") LocalDate afterDueDate,
+                                                   @Param("afterId") int afterId,
+                                                   Pageable pageable);
+
+    /**
+     * Retrieves a page of a user's tasks with the given status that come after a task without a due date.
+     * Passing an afterId of 0 returns the first page.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param taskStatus the status of the tasks to fetch
+     * @param afterId the ID of the last task on the previous page
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.taskStatus = :taskStatus " +
+            "AND ((t.dueDate IS NULL AND t.id > :afterId) OR t.dueDate IS NOT NULL) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findTaskPageByUserIdAndStatusAfterNullDueDate(@Param("userId") int userId,
+                                                                @Param("taskStatus") boolean taskStatus,
+                                                                @Param("afterId") int afterId,
+                                                                Pageable pageable);
+
+    /**
+     * Retrieves a page of a user's tasks with the given status that come after the task at the given position.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param taskStatus the status of the tasks to fetch
+     * @param afterDueDate the due date of the last task on the previous page
+     * @param afterId the ID of the last task on the previous page
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.taskStatus = :taskStatus " +
+            "AND (t.dueDate > :afterDueDate OR (t.dueDate = :afterDueDate AND t.id > :afterId)) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findTaskPageByUserIdAndStatusAfterDueDate(@Param("userId") int userId,
+                                                            @Param("taskStatus") boolean taskStatus,
+                                                            @Param("afterDueDate") LocalDate afterDueDate,
+                                                            @Param("afterId") int afterId,
+                                                            Pageable pageable);
+
+    /**
+     * Retrieves the first page of a user's overdue tasks: pending tasks whose due date is before today.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param today the current date
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.taskStatus = false AND t.dueDate < :today " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findOverdueTaskPageByUserId(@Param("userId") int userId,
+                                              @Param("today") LocalDate today,
+                                              Pageable pageable);
+
+    /**
+     * Retrieves a page of a user's overdue tasks that come after the task at the given position.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param today the current date
+     * @param afterDueDate the due date of the last task on the previous page
+     * @param afterId the ID of the last task on the previous page
+     * @param pageable the size of the page to fetch
+     * @return the tasks on the page as DTOs, ordered by due date and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.taskStatus = false AND t.dueDate < :today " +
+            "AND (t.dueDate > :afterDueDate OR (t.dueDate = :afterDueDate AND t.id > :afterId)) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDTO> findOverdueTaskPageByUserIdAfterDueDate(@Param("userId") int userId,
+                                                          @Param("today") LocalDate today,
+                                                          @Param("afterDueDate") LocalDate afterDueDate,
+                                                          @Param("afterId") int afterId,
+                                                          Pageable pageable);
+
+    /**
+     * Deletes the tasks with the given IDs that belong to the given user in a single statement.
+     * IDs of tasks owned by another user, or of tasks that no longer exist, are ignored.
+     *
+     * This is a bulk operation: it bypasses the persistence context, which is cleared afterwards.
+     *
+     * @param ids the IDs of the tasks to delete
+     * @param userId the ID of the user who must own the tasks
+     * @return the number of tasks deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.user.id = :userId")
+    int deleteByIdInAndUserId(@Param("ids") Collection<Integer> ids, @Param("userId") int userId);
+
+    /**
+     * Retrieves the IDs among the given ones of the tasks that belong to the given user, in a single
+     * statement. Bulk changes read these before changing the tasks, to report which tasks they changed.
+     *
+     * @param ids the IDs of the tasks to look for
+     * @param userId the ID of the user who must own the tasks
+     * @return the IDs of the user's tasks found among them
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids AND t.user.id = :userId")
+    List<Integer> findIdsByIdInAndUserId(@Param("ids") Collection<Integer> ids, @Param("userId") int userId);
+
+    /**
+     * Counts the tasks with the given IDs that belong to the given user by status and due date, in a
+     * single statement. Bulk changes read these before changing the tasks, to adjust the user's task
+     * counts by the tasks they touch.
+     *
+     * @param ids the IDs of the tasks to count
+     * @param userId the ID of the user who must own the tasks
+     * @return the number of tasks for each status and due date found among them
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskStatusCountDTO(t.taskStatus, t.dueDate, COUNT(t)) FROM Task t " +
+            "WHERE t.id IN :ids AND t.user.id = :userId GROUP BY t.taskStatus, t.dueDate")
+    List<TaskStatusCountDTO> countByIdInAndUserIdGroupByStatusAndDueDate(@Param("ids") Collection<Integer> ids,
+                                                                        @Param("userId") int userId);
+
+    /**
+     * Sets the status of the tasks with the given IDs that belong to the given user in a single statement.
+     * IDs of tasks owned by another user, or of tasks that no longer exist, are ignored.
+     *
+     * This is a bulk operation: it bypasses the persistence context and dirty checking,
+     * and the persistence context is cleared afterwards. It also stamps the tasks with the
+     * change sequence number of the calling transaction.
+     *
+     * @param ids the IDs of the tasks to update
+     * @param userId the ID of the user who must own the tasks
+     * @param taskStatus the status to set
+     * @param changeSeq the change sequence number of the updating transaction
+     * @return the number of tasks matched by the update
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.taskStatus = :taskStatus, t.changeSeq = :changeSeq WHERE t.id IN :ids AND t.user.id = :userId")
+    int updateStatusByIdInAndUserId(@Param("ids") Collection<Integer> ids,
+                                    @Param("userId") int userId,
+                                    @Param("taskStatus") boolean taskStatus,
+                                    @Param("changeSeq") long changeSeq);
+
+    /**
+     * Retrieves the tasks of a user that were created or changed after the given change sequence number,
+     * as DTOs. Served by the task(user_id, change_seq) index, so the cost follows the number of changes.
+     *
+     * @param userId the ID of the user whose tasks are to be fetched
+     * @param since the change sequence number after which the tasks must have changed
+     * @return the changed tasks, ordered by the change sequence number and then id
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskDTO(t.id, t.taskName, t.startDate, t.dueDate, t.taskStatus) FROM Task t " +
+            "WHERE t.user.id = :userId AND t.changeSeq > :since ORDER BY t.changeSeq, t.id")
+    List<TaskDTO> findTaskDTOsByUserIdChangedAfter(@Param("userId") int userId, @Param("since") long since);
+
 }
@@ -0,0 +1,57 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.entity.TaskTombstone;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing TaskTombstone entities, the records of deleted tasks read by the
+ * sync API.
+ */
+public interface TaskTombstoneRepository extends CrudRepository<TaskTombstone, Integer> {
+
+    /**
+     * Records tombstones for the tasks with the given IDs that belong to the given user, in a single
+     * statement. Must run before the tasks are deleted; IDs of tasks owned by another user are ignored.
+     *
+     * @param ids the IDs of the tasks about to be deleted
+     * @param userId the ID of the user who must own the tasks
+     * @param deletedAt the time of the deletion
+     * @param changeSeq the change sequence number of the deleting transaction
+     * @return the number of tombstones recorded
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO TaskTombstone (taskId, userId, deletedAt, changeSeq) " +
+            "SELECT t.id, t.user.id, :deletedAt, :changeSeq FROM Task t WHERE t.id IN :ids AND t.user.id = :userId")
+    int insertForTasks(@Param("ids") Collection<Integer> ids,
+                       @Param("userId") int userId,
+                       @Param("deletedAt") Instant deletedAt,
+                       @Param("changeSeq") long changeSeq);
+
+    /**
+     * Retrieves the IDs of a user's tasks that were deleted after the given change sequence number.
+     * Served by the task_tombstone(user_id, change_seq) index.
+     *
+     * @param userId the ID of the user whose deleted tasks are to be fetched
+     * @param since the change sequence number after which the tasks must have been deleted
+     * @return the IDs of the deleted tasks
+     */
+    @Query("SELECT tt.taskId FROM TaskTombstone tt WHERE tt.userId = :userId AND tt.changeSeq > :since ORDER BY tt.taskId")
+    List<Integer> findTaskIdsByUserIdDeletedAfter(@Param("userId") int userId, @Param("since") long since);
+
+    /**
+     * Deletes the tombstones recorded before the given time in a single statement.
+     *
+     * @param cutoff the time before which tombstones are deleted
+     * @return the number of tombstones deleted
+     */
+    @Modifying
+    @Query("DELETE FROM TaskTombstone tt WHERE tt.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,28 +1,37 @@
 package com.example.taskmanager.repository;
 
+import com.example.taskmanager.dto.AdminUserSummaryDTO;
 import com.example.taskmanager.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * UserRepository is an interface for managing User entities in the database.
  * This interface extends the CrudRepository interface provided by Spring Data JPA,
- * offering standard CRUD operations as well as custom queries.
+ * offering standard CRUD operations as well as custom queries. Lookups by username are
+ * provided by UserRepositoryCustom.
  */
-public interface UserRepository extends CrudRepository<User, Integer> {
+public interface UserRepository extends CrudRepository<User, Integer>, UserRepositoryCustom {
 
 	/**
-	 * Finds a User entity by its username.
+	 * Finds a User entity by its username, fetching its roles in the same query.
+	 *
+	 * Used where the roles are needed, such as authentication and editing a user's roles.
 	 *
 	 * @param username the username to search for
-	 * @return the User entity associated with the given username,
+	 * @return the User entity with its roles initialized,
 	 *         or null if no User entity is found with that username
 	 */
+	@EntityGraph(attributePaths = "roles")
 	@Query("SELECT u FROM User u WHERE u.username = :username")
-	User findByUsername(String username);
+	User findWithRolesByUsername(@Param("username") String username);
 
 
 
@@ -35,6 +44,45 @@ public interface UserRepository extends CrudRepository<User, Integer> {
 	@Query("SELECT u FROM User u WHERE u.id = :id")
 	User findUserById(int id);
 
+	/**
+	 * Retrieves the User entities with the given usernames in one query.
+	 *
+	 * @param usernames the usernames to search for
+	 * @return the users found; usernames without a user are left out
+	 */
+	@Query("SELECT u FROM User u WHERE u.username IN :usernames")
+	List<User> findAllByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+	/**
+	 * Retrieves a page of admin user summaries, with each user's task counts read from the
+	 * user_task_stats table by primary key rather than counted from the user's tasks.
+	 *
+	 * Pages are ordered by username and start strictly after the given username, so each page is a
+	 * range scan on the unique username index. Role names are not included; see findRoleNamesByUserIds.
+	 *
+	 * @param usernamePattern a LIKE pattern the usernames must match, such as a prefix followed by %
+	 * @param afterUsername the username of the last user on the previous page, or an empty string for the first page
+	 * @param pageable the size of the page to fetch
+	 * @return the summaries on the page, ordered by username
+	 */
+	@Query("SELECT new com.example.taskmanager.dto.AdminUserSummaryDTO(u.id, u.username, u.firstName, u.lastName, u.email, " +
+			"COALESCE(s.pendingCount, 0L), COALESCE(s.completedCount, 0L), COALESCE(s.overdueCount, 0L)) " +
+			"FROM User u LEFT JOIN UserTaskStats s ON s.userId = u.id " +
+			"WHERE u.username LIKE :usernamePattern ESCAPE '!' AND u.username > :afterUsername " +
+			"ORDER BY u.username ASC")
+	List<AdminUserSummaryDTO> findAdminUserSummaries(@Param("usernamePattern") String usernamePattern,
+													 @Param("afterUsername") String afterUsername,
+													 Pageable pageable);
+
+	/**
+	 * Retrieves the role names of the given users in a single query.
+	 *
+	 * @param userIds the IDs of the users whose roles are to be fetched
+	 * @return pairs of user ID and role name, ordered by user ID and role name
+	 */
+	@Query("SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN :userIds ORDER BY u.id, r.name")
+	List<Object[]> findRoleNamesByUserIds(@Param("userIds") Collection<Integer> userIds);
+
 	/**
 	 * Checks if a user with the given email exists in the repository.
 	 *
@@ -0,0 +1,19 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.entity.User;
+
+/**
+ * Custom lookups for User entities that cannot be expressed as Spring Data query methods.
+ */
+public interface UserRepositoryCustom {
+
+	/**
+	 * Finds a User entity by its username.
+	 *
+	 * @param username the username to search for
+	 * @return the User entity associated with the given username,
+	 *         or null if no User entity is found with that username
+	 */
+	User findByUsername(String username);
+
+}
@@ -0,0 +1,43 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of UserRepositoryCustom, picked up by Spring Data as a fragment of UserRepository.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+	private final EntityManager entityManager;
+
+	/**
+	 * Constructs a UserRepositoryCustomImpl with the given entity manager.
+	 *
+	 * @param entityManager the entity manager used to look users up
+	 */
+	@Autowired
+	public UserRepositoryCustomImpl(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * Finds a User entity by its username through Hibernate's natural id API.
+	 *
+	 * Unlike a JPQL query, a natural id lookup is answered from the second-level cache when the username
+	 * and the user are cached, so repeated lookups of the same user do not reach the database.
+	 *
+	 * @param username the username to search for
+	 * @return the User entity associated with the given username,
+	 *         or null if no User entity is found with that username
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public User findByUsername(String username) {
+		return entityManager.unwrap(Session.class)
+				.bySimpleNaturalId(User.class)
+				.load(username);
+	}
+}
@@ -0,0 +1,142 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.dto.TaskStatsDTO;
+import com.example.taskmanager.entity.UserTaskStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing UserTaskStats entities, the per-user task counts kept up to date
+ * by the task service, which also hold each user's change sequence for the sync API.
+ *
+ * Counts are only ever changed by single UPDATE statements that add to the stored values, so
+ * concurrent changes to one user's tasks can not overwrite each other's adjustments.
+ */
+public interface UserTaskStatsRepository extends CrudRepository<UserTaskStats, Integer> {
+
+    /**
+     * Retrieves the task counts of a user by primary key, without loading the entity.
+     *
+     * @param userId the ID of the user whose counts are to be fetched
+     * @return the counts, or an empty Optional if none are stored for the user yet
+     */
+    @Query("SELECT new com.example.taskmanager.dto.TaskStatsDTO(s.pendingCount, s.completedCount, s.overdueCount) " +
+            "FROM UserTaskStats s WHERE s.userId = :userId")
+    Optional<TaskStatsDTO> findTaskStatsByUserId(@Param("userId") int userId);
+
+    /**
+     * Adds the given amounts to a user's task counts in a single statement.
+     *
+     * @param userId the ID of the user whose counts are adjusted
+     * @param pending the amount added to the pending count, negative to subtract
+     * @param completed the amount added to the completed count, negative to subtract
+     * @param overdue the amount added to the overdue count, negative to subtract
+     * @return the number of rows updated, 0 if no counts are stored for the user yet
+     */
+    @Modifying
+    @Query("UPDATE UserTaskStats s SET s.pendingCount = s.pendingCount + :pending, " +
+            "s.completedCount = s.completedCount + :completed, s.overdueCount = s.overdueCount + :overdue " +
+            "WHERE s.userId = :userId")
+    int increment(@Param("userId") int userId,
+                  @Param("pending") long pending,
+                  @Param("completed") long completed,
+                  @Param("overdue") long overdue);
+
+    /**
+     * Retrieves a user's task counts with a locking read, which keeps the user's row locked until the
+     * transaction ends.
+     *
+     * @param userId the ID of the user whose counts are locked
+     * @return the counts, or an empty Optional if none are stored for the user yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserTaskStats s WHERE s.userId = :userId")
+    Optional<UserTaskStats> findForUpdateByUserId(@Param("userId") int userId);
+
+    /**
+     * Draws the next number of a user's change sequence in a single statement, which keeps the user's
+     * row locked until the transaction ends.
+     *
+     * @param userId the ID of the user whose sequence is advanced
+     * @return the number of rows updated, 0 if no row is stored for the user yet
+     */
+    @Modifying
+    @Query("UPDATE UserTaskStats s SET s.changeSeq = s.changeSeq + 1 WHERE s.userId = :userId")
+    int incrementChangeSeq(@Param("userId") int userId);
+
+    /**
+     * Retrieves the last number drawn from a user's change sequence.
+     *
+     * @param userId the ID of the user whose sequence is read
+     * @return the last number drawn, or an empty Optional if no row is stored for the user yet
+     */
+    @Query("SELECT s.changeSeq FROM UserTaskStats s WHERE s.userId = :userId")
+    Optional<Long> findChangeSeqByUserId(@Param("userId") int userId);
+
+    /**
+     * Recounts a user's task counts from the task table in a single statement.
+     *
+     * @param userId the ID of the user whose counts are recounted
+     * @param today the current date, used to decide which pending tasks are overdue
+     * @return the number of rows updated, 0 if no counts are stored for the user yet
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserTaskStats s SET " +
+            "s.pendingCount = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.taskStatus = false), " +
+            "s.completedCount = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.taskStatus = true), " +
+            "s.overdueCount = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.taskStatus = false AND t.dueDate < :today) " +
+            "WHERE s.userId = :userId")
+    int recount(@Param("userId") int userId, @Param("today") LocalDate today);
+
+    /**
+     * Stores zero counts for a user who has none yet, to be recounted in the same transaction. Does
+     * nothing if another transaction stored the user's counts first.
+     *
+     * @param userId the ID of the user whose counts are stored
+     * @return the number of rows inserted, 0 if the user already had counts
+     */
+    @Modifying
+    @Query("INSERT INTO UserTaskStats (userId, pendingCount, completedCount, overdueCount, changeSeq) " +
+            "VALUES (:userId, 0L, 0L, 0L, 0L) ON CONFLICT DO NOTHING")
+    int insertEmpty(@Param("userId") int userId);
+
+    /**
+     * Stores the task counts of every user who has none yet, counted from the task table.
+     *
+     * @param today the current date, used to decide which pending tasks are overdue
+     * @return the number of rows inserted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO UserTaskStats (userId, pendingCount, completedCount, overdueCount, changeSeq) " +
+            "SELECT u.id, " +
+            "(SELECT COUNT(t) FROM Task t WHERE t.user.id = u.id AND t.taskStatus = false), " +
+            "(SELECT COUNT(t) FROM Task t WHERE t.user.id = u.id AND t.taskStatus = true), " +
+            "(SELECT COUNT(t) FROM Task t WHERE t.user.id = u.id AND t.taskStatus = false AND t.dueDate < :today), " +
+            "0L FROM User u WHERE NOT EXISTS (SELECT 1 FROM UserTaskStats s WHERE s.userId = u.id)")
+    int insertMissing(@Param("today") LocalDate today);
+
+    /**
+     * Deletes the task counts of users who no longer exist in a single statement.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM UserTaskStats s WHERE NOT EXISTS (SELECT 1 FROM User u WHERE u.id = s.userId)")
+    int deleteOrphans();
+
+    /**
+     * Retrieves the IDs of the users whose task counts are stored.
+     *
+     * @return the user IDs, in ascending order
+     */
+    @Query("SELECT s.userId FROM UserTaskStats s ORDER BY s.userId")
+    List<Integer> findAllUserIds();
+}
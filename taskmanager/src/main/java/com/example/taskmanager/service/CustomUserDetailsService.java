@@ -3,27 +3,64 @@ package com.example.taskmanager.service;
 import com.example.taskmanager.entity.Role;
 import com.example.taskmanager.entity.User;
 import com.example.taskmanager.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to load user-specific data.
  *
  * This service is an implementation of the {@link UserDetailsService} which is used by Spring Security.
- * It retrieves user details from the database based on the provided username.
+ * It retrieves user details from the database based on the provided username, and keeps the details of
+ * recently loaded users in a bounded cache so that repeated logins only cost a password check. As a
+ * {@link UserDetailsPasswordService} it also stores the re-hashed passwords of users whose hashes were
+ * made with an outdated work factor.
+ *
+ * Usernames are compared case-insensitively by the database's collation, so the cache is keyed by the
+ * lower-cased username stored for the user, whatever casing the login was typed in.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+	/**
+	 * Maximum number of users whose details are cached.
+	 */
+	private static final int MAX_CACHED_USERS = 1000;
+
+	/**
+	 * How long cached details are kept, as a backstop in case a change bypasses {@link #evictUser}.
+	 */
+	private static final Duration CACHED_USER_TTL = Duration.ofMinutes(10);
 
 	private final UserRepository userRepository;
 
+	private final Cache<String, CachedUser> userCache = Caffeine.newBuilder()
+			.maximumSize(MAX_CACHED_USERS)
+			.expireAfterWrite(CACHED_USER_TTL)
+			.build();
+
+	/**
+	 * Incremented on every eviction. A load only caches its result if no eviction happened while it was
+	 * reading, so a login racing a password change can not put the old password back into the cache.
+	 */
+	private final AtomicLong evictions = new AtomicLong();
+
 	/**
 	 * Constructor to initialize CustomUserDetailsService with UserRepository.
 	 *
@@ -35,26 +72,106 @@ public class CustomUserDetailsService implements UserDetailsService {
 	}
 
 	/**
-	 * Loads the user from the database based on the provided username.
+	 * Loads the user based on the provided username, from the cache if possible and otherwise from the
+	 * database. The user's roles are fetched in the same query.
+	 *
+	 * The returned details are a {@link TaskManagerUserDetails} carrying the user's ID. A new instance is
+	 * returned on every call, since Spring Security erases the password of the instance it authenticates.
 	 *
 	 * @param username the username identifying the user whose data is required.
-	 * @return UserDetails a fully populated user record with username, password, and authorities.
-	 * @throws UsernameNotFoundException if the user could not be found or the user has no granted authority.
+	 * @return UserDetails a fully populated user record with ID, username, password, and authorities.
+	 * @throws UsernameNotFoundException if the user could not be found.
 	 */
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userRepository.findByUsername(username);
+		CachedUser cachedUser = userCache.getIfPresent(cacheKey(username));
+
+		if (cachedUser == null) {
+			long evictionsBeforeLoad = evictions.get();
+			User user = userRepository.findWithRolesByUsername(username);
+
+			if (user == null) {
+				throw new UsernameNotFoundException("User with username : " + username + " not found");
+			}
+
+			CachedUser loadedUser = new CachedUser(user.getId(), user.getUsername(), user.getPassword(),
+					mapRolesToAuthorities(user.getRoles()));
+
+			// Computing under the key's lock orders this put against a concurrent evictUser call
+			userCache.asMap().compute(cacheKey(user.getUsername()), (key, current) ->
+					evictions.get() == evictionsBeforeLoad ? loadedUser : current);
+			cachedUser = loadedUser;
+		}
+
+		return new TaskManagerUserDetails(cachedUser.id(), cachedUser.username(), cachedUser.password(),
+				cachedUser.authorities());
+	}
+
+	/**
+	 * Stores a user's password re-hashed with the current work factor. Called by Spring Security after a
+	 * successful login with a password whose stored hash should be upgraded.
+	 *
+	 * @param userDetails the details of the user who logged in
+	 * @param newPassword the password re-hashed with the current work factor
+	 * @return the user's details carrying the new hash
+	 * @throws UsernameNotFoundException if the user has been deleted since logging in
+	 */
+	@Override
+	@Transactional
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+		User user = userRepository.findByUsername(userDetails.getUsername());
 
 		if (user == null) {
-			throw new RuntimeException("User with username : " + username + " not found");
+			throw new UsernameNotFoundException("User with username : " + userDetails.getUsername() + " not found");
 		}
 
+		user.setPassword(newPassword);
+		userRepository.save(user);
+		evictUser(user.getUsername());
 
-		Collection<SimpleGrantedAuthority> authorities = mapRolesToAuthorities(user.getRoles());
+		return new TaskManagerUserDetails(user.getId(), userDetails.getUsername(), newPassword,
+				userDetails.getAuthorities());
+	}
 
+	/**
+	 * Removes the cached details of a user. Called whenever a user's password, roles or existence change.
+	 *
+	 * The entry is removed straight away, and again once the surrounding transaction commits, since a
+	 * login in between would still read and cache the uncommitted row's previous state.
+	 *
+	 * @param username the username of the user whose details have changed
+	 */
+	public void evictUser(String username) {
+		evict(username);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(username);
+				}
+			});
+		}
+	}
 
-		return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
-				authorities);
+	/**
+	 * Invalidates any load in progress and removes the cached details of a user.
+	 *
+	 * @param username the username of the user to remove
+	 */
+	private void evict(String username) {
+		evictions.incrementAndGet();
+		userCache.invalidate(cacheKey(username));
+	}
+
+	/**
+	 * Returns the key a user's details are cached under, the same for every casing of the username.
+	 *
+	 * @param username the username, in any casing
+	 * @return the lower-cased username
+	 */
+	private String cacheKey(String username) {
+		return username.toLowerCase(Locale.ROOT);
 	}
 
 	/**
@@ -63,16 +180,20 @@ public class CustomUserDetailsService implements UserDetailsService {
 	 * @param roles the collection of Role objects to be converted
 	 * @return a collection of SimpleGrantedAuthority objects derived from the roles
 	 */
-	private Collection<SimpleGrantedAuthority> mapRolesToAuthorities(Collection<Role> roles) {
+	private List<GrantedAuthority> mapRolesToAuthorities(Collection<Role> roles) {
 		return roles.stream()
-				.map(role -> new SimpleGrantedAuthority(role.getName()))
-				.collect(Collectors.toList());
+				.map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.getName()))
+				.toList();
 	}
 
-
-
-
-
-
-
+	/**
+	 * The details of a user kept in the cache.
+	 *
+	 * @param id the user's database ID
+	 * @param username the user's username
+	 * @param password the user's password hash
+	 * @param authorities the authorities granted by the user's roles
+	 */
+	private record CachedUser(int id, String username, String password, List<GrantedAuthority> authorities) {
+	}
 }
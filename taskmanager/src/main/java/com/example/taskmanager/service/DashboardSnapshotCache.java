@@ -0,0 +1,518 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.DashboardSnapshotDTO;
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
+import com.example.taskmanager.dto.TaskStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caches what the user dashboard reads from the database, so a dashboard shown again without its
+ * tasks having changed costs no query.
+ *
+ * Snapshots are kept off the heap. Each one is encoded into a compact binary layout and stored in
+ * fixed-size blocks carved out of direct {@link ByteBuffer} slabs, so cached dashboards add nothing
+ * for the garbage collector to trace or promote however many users are active. Slabs are allocated as
+ * they are needed up to the configured budget; when the budget is used up the least recently shown
+ * snapshots are evicted until the new one fits.
+ *
+ * A hit copies the snapshot's bytes into one short-lived array, and its tasks are decoded from that
+ * array one at a time as the template iterates over them. The copy means a snapshot can be evicted and
+ * its blocks reused while a page is still being rendered from it.
+ *
+ * Each snapshot is stamped with the version of the user's tasks from {@link TaskVersionTracker} and the
+ * date it was read on, and is only served while both are current. A snapshot read while a change was
+ * committing is therefore never served after it, and one read before midnight, whose overdue tasks
+ * have changed since, is not served after it either. The snapshots of a user whose tasks changed are
+ * also evicted straight away, to give their blocks back.
+ */
+@Component
+public class DashboardSnapshotCache {
+
+	/**
+	 * Size of the blocks snapshots are stored in; a page of tasks takes one to three of them.
+	 */
+	static final int BLOCK_SIZE = 1024;
+
+	/**
+	 * Number of blocks in one slab of direct memory.
+	 */
+	private static final int BLOCKS_PER_SLAB = 256;
+
+	/**
+	 * Encoded length written for a null string or date.
+	 */
+	private static final int NULL = -1;
+
+	private final TaskVersionTracker taskVersionTracker;
+
+	/**
+	 * Maximum number of blocks, from the configured budget.
+	 */
+	private final int maxBlocks;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final List<ByteBuffer> slabs = new ArrayList<>();
+	private int allocatedBlocks;
+
+	/**
+	 * Stack of the free blocks in the allocated slabs.
+	 */
+	private final int[] freeBlocks;
+	private int freeCount;
+
+	/**
+	 * The snapshots in least recently used order.
+	 */
+	private final LinkedHashMap<Key, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The snapshots of each user, so they can be evicted together.
+	 */
+	private final Map<Integer, List<Key>> keysByUser = new HashMap<>();
+
+	/**
+	 * Constructs a DashboardSnapshotCache.
+	 *
+	 * @param taskVersionTracker the tracker whose versions tell whether a snapshot is still current
+	 * @param maxSize the most direct memory the snapshots may take; zero turns the cache off
+	 */
+	@Autowired
+	public DashboardSnapshotCache(TaskVersionTracker taskVersionTracker,
+								  @Value("${taskmanager.dashboard-cache.max-size:8MB}") DataSize maxSize) {
+		this.taskVersionTracker = taskVersionTracker;
+		this.maxBlocks = (int) Math.min(maxSize.toBytes() / BLOCK_SIZE, Integer.MAX_VALUE);
+		this.freeBlocks = new int[maxBlocks];
+	}
+
+	/**
+	 * Returns a user's dashboard snapshot, loading and caching it if no current one is cached.
+	 *
+	 * @param userId the ID of the user whose dashboard is shown
+	 * @param filter the subset of the user's tasks shown
+	 * @param cursor the cursor of the page shown, or null for the first page
+	 * @param loader reads the snapshot from the database on a miss
+	 * @return the snapshot; on a hit its tasks are decoded as they are iterated
+	 */
+	public DashboardSnapshotDTO get(int userId, TaskStatusFilter filter, String cursor, Supplier<DashboardSnapshotDTO> loader) {
+		Key key = new Key(userId, filter, cursor);
+		long version = taskVersionTracker.getVersion(userId);
+		long day = LocalDate.now().toEpochDay();
+
+		byte[] cached = read(key, version, day);
+		if (cached != null) {
+			return decode(cached);
+		}
+
+		DashboardSnapshotDTO snapshot = loader.get();
+		write(key, version, day, encode(snapshot));
+		return snapshot;
+	}
+
+	/**
+	 * Evicts the snapshots of a user whose tasks changed, once the change has committed.
+	 *
+	 * @param event the event naming the user whose tasks changed
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTaskChanged(TaskChangedEvent event) {
+		lock.lock();
+		try {
+			List<Key> keys = keysByUser.remove(event.userId());
+			if (keys != null) {
+				keys.forEach(key -> free(snapshots.remove(key)));
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of direct memory the snapshots occupy.
+	 *
+	 * @return the bytes in use, counted in whole blocks
+	 */
+	public long getUsedBytes() {
+		lock.lock();
+		try {
+			return (long) (allocatedBlocks - freeCount) * BLOCK_SIZE;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of cached snapshots.
+	 *
+	 * @return the number of snapshots
+	 */
+	public int getSnapshotCount() {
+		lock.lock();
+		try {
+			return snapshots.size();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Copies a current snapshot out of its blocks. A snapshot that is no longer current is evicted.
+	 *
+	 * @param key the key of the snapshot
+	 * @param version the current version of the user's tasks
+	 * @param day the current date, as an epoch day
+	 * @return the encoded snapshot, or null on a miss
+	 */
+	private byte[] read(Key key, long version, long day) {
+		lock.lock();
+		try {
+			Snapshot snapshot = snapshots.get(key);
+			if (snapshot == null) {
+				return null;
+			}
+			if (snapshot.version != version || snapshot.day != day) {
+				evict(key);
+				return null;
+			}
+
+			byte[] bytes = new byte[snapshot.length];
+			for (int i = 0, offset = 0; offset < bytes.length; i++, offset += BLOCK_SIZE) {
+				int block = snapshot.blocks[i];
+				slab(block).get(blockOffset(block), bytes, offset, Math.min(BLOCK_SIZE, bytes.length - offset));
+			}
+			return bytes;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stores an encoded snapshot, evicting the least recently used ones until it fits. Nothing is stored
+	 * if the user's tasks changed while the snapshot was read, or if it would take more than a quarter
+	 * of the budget.
+	 *
+	 * @param key the key of the snapshot
+	 * @param version the version of the user's tasks when the snapshot was read
+	 * @param day the date the snapshot was read on, as an epoch day
+	 * @param bytes the encoded snapshot
+	 */
+	private void write(Key key, long version, long day, byte[] bytes) {
+		int blockCount = (bytes.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		if (blockCount > maxBlocks / 4) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			if (taskVersionTracker.getVersion(key.userId) != version) {
+				return;
+			}
+			evict(key);
+
+			while (freeCount < blockCount && !allocateSlab()) {
+				evict(snapshots.keySet().iterator().next());
+			}
+
+			int[] blocks = new int[blockCount];
+			for (int i = 0, offset = 0; i < blockCount; i++, offset += BLOCK_SIZE) {
+				int block = freeBlocks[--freeCount];
+				slab(block).put(blockOffset(block), bytes, offset, Math.min(BLOCK_SIZE, bytes.length - offset));
+				blocks[i] = block;
+			}
+
+			snapshots.put(key, new Snapshot(version, day, bytes.length, blocks));
+			keysByUser.computeIfAbsent(key.userId, userId -> new ArrayList<>()).add(key);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Allocates another slab and adds its blocks to the free ones, unless that would exceed the budget.
+	 * Must be called with the lock held.
+	 *
+	 * @return true if a slab was allocated
+	 */
+	private boolean allocateSlab() {
+		int firstBlock = slabs.size() * BLOCKS_PER_SLAB;
+		int blockCount = Math.min(BLOCKS_PER_SLAB, maxBlocks - allocatedBlocks);
+		if (blockCount <= 0) {
+			return false;
+		}
+
+		slabs.add(ByteBuffer.allocateDirect(blockCount * BLOCK_SIZE));
+		allocatedBlocks += blockCount;
+		for (int block = firstBlock + blockCount - 1; block >= firstBlock; block--) {
+			freeBlocks[freeCount++] = block;
+		}
+		return true;
+	}
+
+	/**
+	 * Evicts a snapshot, if cached, and frees its blocks. Must be called with the lock held.
+	 *
+	 * @param key the key of the snapshot
+	 */
+	private void evict(Key key) {
+		Snapshot snapshot = snapshots.remove(key);
+		if (snapshot == null) {
+			return;
+		}
+
+		List<Key> keys = keysByUser.get(key.userId);
+		keys.remove(key);
+		if (keys.isEmpty()) {
+			keysByUser.remove(key.userId);
+		}
+		free(snapshot);
+	}
+
+	/**
+	 * Returns the blocks of a snapshot to the free ones. Must be called with the lock held.
+	 *
+	 * @param snapshot the snapshot whose blocks are freed, may be null
+	 */
+	private void free(Snapshot snapshot) {
+		if (snapshot != null) {
+			for (int block : snapshot.blocks) {
+				freeBlocks[freeCount++] = block;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slab a block lies in.
+	 *
+	 * @param block the number of the block
+	 * @return the slab
+	 */
+	private ByteBuffer slab(int block) {
+		return slabs.get(block / BLOCKS_PER_SLAB);
+	}
+
+	/**
+	 * Returns the position of a block within its slab.
+	 *
+	 * @param block the number of the block
+	 * @return the position of the block's first byte
+	 */
+	private int blockOffset(int block) {
+		return (block % BLOCKS_PER_SLAB) * BLOCK_SIZE;
+	}
+
+	/**
+	 * Encodes a snapshot. The layout is the three task counts, the next page's cursor and the number of
+	 * tasks, followed by a table of each task's offset and then the tasks themselves, so any task can be
+	 * decoded without the ones before it. A task is its ID, start and due dates as epoch days, status and
+	 * name. Strings are stored as UTF-8 after their length, and a null string or date as -1.
+	 *
+	 * @param snapshot the snapshot to encode
+	 * @return the encoded snapshot
+	 */
+	static byte[] encode(DashboardSnapshotDTO snapshot) {
+		List<TaskDTO> tasks = snapshot.getPage().getTasks();
+		TaskStatsDTO taskStats = snapshot.getTaskStats();
+
+		try {
+			ByteArrayOutputStream rows = new ByteArrayOutputStream(tasks.size() * 48);
+			DataOutputStream rowOutput = new DataOutputStream(rows);
+			int[] offsets = new int[tasks.size()];
+
+			for (int i = 0; i < tasks.size(); i++) {
+				TaskDTO task = tasks.get(i);
+				offsets[i] = rowOutput.size();
+				rowOutput.writeInt(task.getId());
+				writeDate(rowOutput, task.getStartDate());
+				writeDate(rowOutput, task.getDueDate());
+				rowOutput.writeBoolean(task.isTaskStatus());
+				writeString(rowOutput, task.getTaskName());
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + offsets.length * 4 + rows.size());
+			DataOutputStream output = new DataOutputStream(bytes);
+			output.writeLong(taskStats.getPendingCount());
+			output.writeLong(taskStats.getCompletedCount());
+			output.writeLong(taskStats.getOverdueCount());
+			writeString(output, snapshot.getPage().getNextCursor());
+			output.writeInt(offsets.length);
+
+			int rowsStart = output.size() + offsets.length * 4;
+			for (int offset : offsets) {
+				output.writeInt(rowsStart + offset);
+			}
+			rows.writeTo(output);
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Decodes a snapshot whose tasks are decoded as they are read.
+	 *
+	 * @param bytes the encoded snapshot
+	 * @return the snapshot
+	 */
+	static DashboardSnapshotDTO decode(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		TaskStatsDTO taskStats = new TaskStatsDTO(buffer.getLong(), buffer.getLong(), buffer.getLong());
+		String nextCursor = readString(buffer);
+		int taskCount = buffer.getInt();
+
+		return DashboardSnapshotDTO.builder()
+				.page(new TaskPageDTO(new EncodedTaskList(bytes, buffer.position(), taskCount), nextCursor))
+				.taskStats(taskStats)
+				.build();
+	}
+
+	/**
+	 * Writes a date as its epoch day.
+	 *
+	 * @param output the output to write to
+	 * @param date the date, may be null
+	 * @throws IOException if the output can not be written
+	 */
+	private static void writeDate(DataOutputStream output, LocalDate date) throws IOException {
+		output.writeInt(date == null ? NULL : (int) date.toEpochDay());
+	}
+
+	/**
+	 * Writes a string as its UTF-8 length and bytes.
+	 *
+	 * @param output the output to write to
+	 * @param value the string, may be null
+	 * @throws IOException if the output can not be written
+	 */
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(NULL);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(utf8.length);
+		output.write(utf8);
+	}
+
+	/**
+	 * Reads a date written by writeDate.
+	 *
+	 * @param buffer the buffer positioned at the date
+	 * @return the date, or null
+	 */
+	private static LocalDate readDate(ByteBuffer buffer) {
+		int epochDay = buffer.getInt();
+		return epochDay == NULL ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+	/**
+	 * Reads a string written by writeString.
+	 *
+	 * @param buffer the heap buffer positioned at the string
+	 * @return the string, or null
+	 */
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == NULL) {
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	/**
+	 * The tasks of a decoded snapshot, each decoded from the snapshot's bytes when it is read. Only the
+	 * task being rendered is on the heap; the template does not keep it once it has moved on.
+	 */
+	private static final class EncodedTaskList extends AbstractList<TaskDTO> implements RandomAccess {
+
+		private final byte[] bytes;
+		private final int offsetTable;
+		private final int size;
+
+		/**
+		 * Constructs an EncodedTaskList.
+		 *
+		 * @param bytes the encoded snapshot
+		 * @param offsetTable the position of the table of task offsets
+		 * @param size the number of tasks
+		 */
+		private EncodedTaskList(byte[] bytes, int offsetTable, int size) {
+			this.bytes = bytes;
+			this.offsetTable = offsetTable;
+			this.size = size;
+		}
+
+		/**
+		 * Decodes one task.
+		 *
+		 * @param index the index of the task
+		 * @return the task, without its user
+		 */
+		@Override
+		public TaskDTO get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(index);
+			}
+
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			buffer.position(buffer.getInt(offsetTable + index * 4));
+
+			int id = buffer.getInt();
+			LocalDate startDate = readDate(buffer);
+			LocalDate dueDate = readDate(buffer);
+			boolean taskStatus = buffer.get() != 0;
+			return new TaskDTO(id, readString(buffer), startDate, dueDate, taskStatus);
+		}
+
+		/**
+		 * Returns the number of tasks.
+		 *
+		 * @return the number of tasks
+		 */
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Identifies one dashboard page of a user.
+	 */
+	private record Key(int userId, TaskStatusFilter filter, String cursor) {
+	}
+
+	/**
+	 * A cached snapshot: where its bytes are and what it was read at.
+	 */
+	private record Snapshot(long version, long day, int length, int[] blocks) {
+	}
+}
@@ -6,7 +6,6 @@ import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,17 +44,13 @@ public class RoleServiceImpl implements RoleService {
 	}
 
 	/**
-	 * Retrieves all roles from the repository.
+	 * Retrieves all roles from the repository, usually from the query cache.
 	 *
-	 * @return a list of all roles available in the repository
+	 * @return a list of all roles available in the repository, ordered by ID
 	 */
 	@Override
 	public List<Role> findAll() {
-		List<Role> roles = new ArrayList<>();
-		for (Role role : roleRepository.findAll()) {
-			roles.add(role);
-		}
-		return roles;
+		return roleRepository.findAllRoles();
 	}
 
 
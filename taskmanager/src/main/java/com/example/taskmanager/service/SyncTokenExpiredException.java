@@ -0,0 +1,24 @@
+package com.example.taskmanager.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a sync token is older than the retention period of task tombstones, so the deletions
+ * since the token can no longer be reported.
+ *
+ * Requests that fail this way are answered with 410 Gone; the client has to sync again without a token
+ * and replace its copy of the task list.
+ */
+@ResponseStatus(value = HttpStatus.GONE, reason = "Sync token has expired, sync again without a token.")
+public class SyncTokenExpiredException extends RuntimeException {
+
+	/**
+	 * Constructs a SyncTokenExpiredException with the given message.
+	 *
+	 * @param message the detail message
+	 */
+	public SyncTokenExpiredException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.repository.UserTaskStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Hands out the change sequence numbers that tasks and task tombstones are stamped with, read by the
+ * sync API to find what changed in a user's task list since a client's last sync.
+ *
+ * Each user has a sequence of their own, kept in the change_seq column of their user_task_stats row.
+ * Drawing a number updates that row, which keeps it locked until the drawing transaction ends, so no
+ * other transaction can draw the user's next number before this one has committed. A user's numbers
+ * therefore become visible in the order they were drawn, and a client that has seen every change up to
+ * a number can never miss one below it. Writes to different users' tasks draw from different rows and
+ * never wait for each other. A writer draws its number before taking any other lock on the user's
+ * tasks, which keeps the sequence from deadlocking with the locks taken after it.
+ */
+@Component
+public class TaskChangeSequence {
+
+	private final UserTaskStatsRepository userTaskStatsRepository;
+
+	/**
+	 * Constructs a TaskChangeSequence.
+	 *
+	 * @param userTaskStatsRepository the repository holding each user's sequence
+	 */
+	@Autowired
+	public TaskChangeSequence(UserTaskStatsRepository userTaskStatsRepository) {
+		this.userTaskStatsRepository = userTaskStatsRepository;
+	}
+
+	/**
+	 * Draws the next change sequence number of a user. Must run in the transaction that changes the
+	 * user's tasks, before it takes any other lock on them.
+	 *
+	 * A user who has no user_task_stats row yet gets one, counted from the task table before the
+	 * transaction changes any task.
+	 *
+	 * @param userId the ID of the user whose tasks are changed
+	 * @return the number to stamp the transaction's changes with
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public long next(int userId) {
+		if (userTaskStatsRepository.incrementChangeSeq(userId) == 0) {
+			if (userTaskStatsRepository.insertEmpty(userId) > 0) {
+				userTaskStatsRepository.recount(userId, LocalDate.now());
+			}
+			userTaskStatsRepository.incrementChangeSeq(userId);
+		}
+		return userTaskStatsRepository.findChangeSeqByUserId(userId).orElseThrow();
+	}
+
+	/**
+	 * Returns the highest change sequence number of a user drawn by a committed transaction. Every change
+	 * to the user's tasks stamped with this number or a lower one is visible to the caller.
+	 *
+	 * @param userId the ID of the user whose tasks are synced
+	 * @return the highest committed number, 0 if none has been drawn
+	 */
+	@Transactional(readOnly = true)
+	public long current(int userId) {
+		return userTaskStatsRepository.findChangeSeqByUserId(userId).orElse(0L);
+	}
+}
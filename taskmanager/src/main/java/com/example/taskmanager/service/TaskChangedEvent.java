@@ -0,0 +1,12 @@
+package com.example.taskmanager.service;
+
+/**
+ * Published whenever a user's tasks are created, deleted or updated.
+ *
+ * Listeners that act on the change, such as {@link TaskVersionTracker} and {@link TaskEventBroadcaster},
+ * listen for it once the transaction that made the change has committed.
+ *
+ * @param userId the ID of the user whose tasks changed
+ */
+public record TaskChangedEvent(int userId) {
+}
@@ -0,0 +1,217 @@
+package com.example.taskmanager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes task changes to the dashboards users have open, as Server-Sent Events.
+ *
+ * Each open dashboard holds one {@link SseEmitter}. The request behind it is an async servlet request,
+ * so an idle connection holds no thread. When a {@link TaskChangedEvent} commits, every connection of
+ * the user is sent a tasks-changed event carrying the user's current task ETag; the page compares it
+ * with the ETag it was rendered with and fetches itself again only when they differ.
+ *
+ * Events are written on virtual threads, never on the thread that committed the change. A connection
+ * buffers at most one pending event: the event only says the tasks changed, so further changes made
+ * while a write is under way are folded into a single follow-up event, and a slow client can not make
+ * events pile up in memory.
+ */
+@Component
+public class TaskEventBroadcaster {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskEventBroadcaster.class);
+
+	/**
+	 * Name of the event sent when a user's tasks change.
+	 */
+	public static final String TASKS_CHANGED_EVENT = "tasks-changed";
+
+	/**
+	 * How long a connection is kept open before the browser is made to reconnect.
+	 */
+	private static final Duration CONNECTION_TIMEOUT = Duration.ofMinutes(30);
+
+	/**
+	 * How long the browser waits before reconnecting after a connection is lost.
+	 */
+	private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+	/**
+	 * Milliseconds between two heartbeats sent to every open connection.
+	 */
+	private static final long HEARTBEAT_INTERVAL_MILLIS = 30_000;
+
+	private final TaskVersionTracker taskVersionTracker;
+
+	private final ConcurrentMap<Integer, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Constructs a TaskEventBroadcaster.
+	 *
+	 * @param taskVersionTracker the tracker providing the ETag sent with each event
+	 */
+	@Autowired
+	public TaskEventBroadcaster(TaskVersionTracker taskVersionTracker) {
+		this.taskVersionTracker = taskVersionTracker;
+	}
+
+	/**
+	 * Opens an event stream for a user. The current ETag is sent straight away, so a page that changed
+	 * between being rendered and subscribing is refreshed as well.
+	 *
+	 * @param userId the ID of the user whose task changes are streamed
+	 * @return the emitter to return from the request handler
+	 */
+	public SseEmitter subscribe(int userId) {
+		SseEmitter emitter = new SseEmitter(CONNECTION_TIMEOUT.toMillis());
+		Subscription subscription = new Subscription(userId, emitter);
+
+		emitter.onCompletion(() -> unsubscribe(subscription));
+		emitter.onTimeout(() -> unsubscribe(subscription));
+		emitter.onError(e -> unsubscribe(subscription));
+
+		subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+		subscription.notifyChanged();
+		return emitter;
+	}
+
+	/**
+	 * Tells every open connection of a user that the user's tasks changed. Runs after the change has
+	 * committed and after {@link TaskVersionTracker} has bumped the user's version.
+	 *
+	 * @param event the event naming the user whose tasks changed
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTaskChanged(TaskChangedEvent event) {
+		Set<Subscription> userSubscriptions = subscriptions.get(event.userId());
+		if (userSubscriptions != null) {
+			userSubscriptions.forEach(Subscription::notifyChanged);
+		}
+	}
+
+	/**
+	 * Sends the current ETag to every open connection. This keeps proxies from closing idle
+	 * connections, finds connections whose client has gone away, and refreshes pages left open past
+	 * midnight, whose overdue tasks have changed.
+	 */
+	@Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MILLIS)
+	public void sendHeartbeats() {
+		subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::notifyChanged));
+	}
+
+	/**
+	 * Returns the number of open connections.
+	 *
+	 * @return the number of connections
+	 */
+	public int getConnectionCount() {
+		return subscriptions.values().stream().mapToInt(Set::size).sum();
+	}
+
+	/**
+	 * Closes the open connections and stops the threads writing to them.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Forgets a connection that has completed, timed out or failed.
+	 *
+	 * @param subscription the connection
+	 */
+	private void unsubscribe(Subscription subscription) {
+		subscriptions.computeIfPresent(subscription.userId, (userId, userSubscriptions) -> {
+			userSubscriptions.remove(subscription);
+			return userSubscriptions.isEmpty() ? null : userSubscriptions;
+		});
+	}
+
+	/**
+	 * One open connection, with its single-slot buffer of pending events.
+	 */
+	private final class Subscription {
+
+		private final int userId;
+		private final SseEmitter emitter;
+
+		/**
+		 * Set while an event is waiting to be written.
+		 */
+		private final AtomicBoolean pending = new AtomicBoolean();
+
+		/**
+		 * Set while a thread is writing to the connection; at most one thread writes at a time.
+		 */
+		private final AtomicBoolean writing = new AtomicBoolean();
+
+		/**
+		 * Constructs a Subscription.
+		 *
+		 * @param userId the ID of the user the connection belongs to
+		 * @param emitter the emitter writing to the connection
+		 */
+		private Subscription(int userId, SseEmitter emitter) {
+			this.userId = userId;
+			this.emitter = emitter;
+		}
+
+		/**
+		 * Marks an event as pending and starts a writer unless one is already running.
+		 */
+		private void notifyChanged() {
+			pending.set(true);
+			if (writing.compareAndSet(false, true)) {
+				executor.execute(this::write);
+			}
+		}
+
+		/**
+		 * Writes pending events until none is left. The ETag is read just before each write, so the
+		 * event carries the latest version even when several changes were folded into it.
+		 */
+		private void write() {
+			try {
+				while (pending.getAndSet(false)) {
+					emitter.send(SseEmitter.event()
+							.name(TASKS_CHANGED_EVENT)
+							.reconnectTime(RECONNECT_DELAY.toMillis())
+							.data(taskVersionTracker.getETag(userId)));
+				}
+			}
+			catch (IOException | IllegalStateException e) {
+				logger.debug("Closing task event stream of user {}: {}", userId, e.getMessage());
+				unsubscribe(this);
+				emitter.completeWithError(e);
+				return;
+			}
+			finally {
+				writing.set(false);
+			}
+
+			// An event may have become pending after the loop ended but before the writer stood down
+			if (pending.get() && writing.compareAndSet(false, true)) {
+				executor.execute(this::write);
+			}
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TaskExportService {
+
+	long exportTasks(int userId, TaskImportFormat format, OutputStream output) throws IOException;
+
+	long exportAllTasks(TaskImportFormat format, OutputStream output) throws IOException;
+
+}
@@ -0,0 +1,170 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskExportDTO;
+import com.example.taskmanager.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports tasks as CSV or NDJSON files that the task import can read back.
+ *
+ * Rows are streamed from a forward-only query, fetched a block at a time, and written out as they
+ * arrive. They are read as DTOs rather than entities, so the persistence context stays empty and
+ * nothing has to be cleared from it; memory use stays the same however many tasks are exported.
+ */
+@Service
+public class TaskExportServiceImpl implements TaskExportService {
+
+	/**
+	 * Number of rows written between two flushes of the output, so a large export reaches the client
+	 * steadily instead of in one piece at the end.
+	 */
+	private static final int FLUSH_INTERVAL = 1_000;
+
+	private static final String CSV_HEADER = "username,taskName,startDate,dueDate,taskStatus";
+
+	private final TaskRepository taskRepository;
+	private final ObjectWriter taskWriter;
+
+	/**
+	 * Constructs a new TaskExportServiceImpl with the given dependencies.
+	 *
+	 * @param taskRepository the repository the exported tasks are streamed from
+	 * @param objectMapper the object mapper used to write NDJSON rows
+	 */
+	@Autowired
+	public TaskExportServiceImpl(TaskRepository taskRepository, ObjectMapper objectMapper) {
+		this.taskRepository = taskRepository;
+		this.taskWriter = objectMapper.writerFor(TaskExportDTO.class);
+	}
+
+	/**
+	 * Writes the tasks of one user to the given output.
+	 *
+	 * @param userId the ID of the user whose tasks are exported
+	 * @param format the format to write
+	 * @param output the stream the file is written to; it is flushed but not closed
+	 * @return the number of tasks written
+	 * @throws IOException if the output can not be written
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long exportTasks(int userId, TaskImportFormat format, OutputStream output) throws IOException {
+		try (Stream<TaskExportDTO> tasks = taskRepository.streamTaskExportsByUserId(userId)) {
+			return write(tasks, format, output);
+		}
+	}
+
+	/**
+	 * Writes the tasks of every user to the given output.
+	 *
+	 * @param format the format to write
+	 * @param output the stream the file is written to; it is flushed but not closed
+	 * @return the number of tasks written
+	 * @throws IOException if the output can not be written
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long exportAllTasks(TaskImportFormat format, OutputStream output) throws IOException {
+		try (Stream<TaskExportDTO> tasks = taskRepository.streamAllTaskExports()) {
+			return write(tasks, format, output);
+		}
+	}
+
+	/**
+	 * Writes a stream of tasks in the given format, flushing the output every FLUSH_INTERVAL rows.
+	 *
+	 * @param tasks the tasks to write
+	 * @param format the format to write
+	 * @param output the stream the file is written to
+	 * @return the number of tasks written
+	 * @throws IOException if the output can not be written
+	 */
+	private long write(Stream<TaskExportDTO> tasks, TaskImportFormat format, OutputStream output) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		long count = 0;
+
+		if (format == TaskImportFormat.CSV) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+
+		Iterator<TaskExportDTO> iterator = tasks.iterator();
+		while (iterator.hasNext()) {
+			TaskExportDTO task = iterator.next();
+			if (format == TaskImportFormat.CSV) {
+				writeCsvRow(writer, task);
+			}
+			else {
+				writer.write(taskWriter.writeValueAsString(task));
+				writer.write('\n');
+			}
+
+			if (++count % FLUSH_INTERVAL == 0) {
+				writer.flush();
+			}
+		}
+
+		writer.flush();
+		return count;
+	}
+
+	/**
+	 * Writes one task as a CSV line, in the columns of CSV_HEADER.
+	 *
+	 * @param writer the writer to write to
+	 * @param task the task to write
+	 * @throws IOException if the output can not be written
+	 */
+	private void writeCsvRow(Writer writer, TaskExportDTO task) throws IOException {
+		writer.write(csvField(task.getUsername()));
+		writer.write(',');
+		writer.write(csvField(task.getTaskName()));
+		writer.write(',');
+		writer.write(dateField(task.getStartDate()));
+		writer.write(',');
+		writer.write(dateField(task.getDueDate()));
+		writer.write(',');
+		writer.write(Boolean.toString(task.isTaskStatus()));
+		writer.write('\n');
+	}
+
+	/**
+	 * Quotes a CSV field if it contains a comma, a quote or a line break, doubling any quotes in it.
+	 *
+	 * @param value the value of the field
+	 * @return the field as it is written to the file
+	 */
+	private String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Formats a date in the ISO format the import reads, or as an empty field if there is none.
+	 *
+	 * @param date the date to format
+	 * @return the field as it is written to the file
+	 */
+	private String dateField(LocalDate date) {
+		return date == null ? "" : date.toString();
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.taskmanager.service;
+
+import java.util.Locale;
+
+/**
+ * File formats accepted by the task import.
+ *
+ * CSV files have one task per line with the columns taskName, startDate, dueDate and an optional
+ * taskStatus, either in that order or in the order given by a header line. NDJSON files have one
+ * JSON object per line using the same property names. Dates use the ISO format yyyy-MM-dd.
+ */
+public enum TaskImportFormat {
+
+	CSV,
+	NDJSON;
+
+	/**
+	 * Determines the import format from the name of an uploaded file.
+	 *
+	 * @param filename the original name of the uploaded file
+	 * @return the matching format, or null if the extension is not supported
+	 */
+	public static TaskImportFormat fromFilename(String filename) {
+		if (filename == null) {
+			return null;
+		}
+
+		String name = filename.toLowerCase(Locale.ROOT);
+		if (name.endsWith(".csv")) {
+			return CSV;
+		}
+		if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+			return NDJSON;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface TaskImportService {
+
+	TaskImportResultDTO importTasks(InputStream input, TaskImportFormat format, int userId) throws IOException;
+
+}
@@ -0,0 +1,359 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskImportResultDTO;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tasks from uploaded CSV or NDJSON files.
+ *
+ * Files are read one line at a time and valid rows are persisted in batches. Each batch is flushed as
+ * JDBC batch inserts, cleared from the persistence context and committed in its own transaction, so
+ * memory use stays the same however many rows a file has. Rows that fail validation are skipped and
+ * reported without aborting the rest of the import.
+ */
+@Service
+public class TaskImportServiceImpl implements TaskImportService {
+
+	private static final int BATCH_SIZE = 500;
+	private static final int MAX_REPORTED_ERRORS = 100;
+
+	private static final List<String> DEFAULT_COLUMNS = List.of("taskname", "startdate", "duedate", "taskstatus");
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final Validator validator;
+	private final ObjectReader taskReader;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TaskStatsService taskStatsService;
+	private final TaskChangeSequence taskChangeSequence;
+
+	/**
+	 * Constructs a new TaskImportServiceImpl with the given dependencies.
+	 *
+	 * @param entityManager the entity manager used to persist the imported tasks
+	 * @param transactionTemplate the template used to commit each batch
+	 * @param validator the validator used to check each row against the WebTaskDTO constraints
+	 * @param objectMapper the mapper used to read NDJSON rows
+	 * @param eventPublisher the publisher of the {@link TaskChangedEvent} sent for each committed batch
+	 * @param taskStatsService the service counting each committed batch in the user's task counts
+	 * @param taskChangeSequence the sequence each batch is stamped from, for the sync API
+	 */
+	@Autowired
+	public TaskImportServiceImpl(EntityManager entityManager, TransactionTemplate transactionTemplate,
+								 Validator validator, ObjectMapper objectMapper,
+								 ApplicationEventPublisher eventPublisher, TaskStatsService taskStatsService,
+								 TaskChangeSequence taskChangeSequence) {
+		this.entityManager = entityManager;
+		this.transactionTemplate = transactionTemplate;
+		this.validator = validator;
+		this.taskReader = objectMapper.readerFor(WebTaskDTO.class);
+		this.eventPublisher = eventPublisher;
+		this.taskStatsService = taskStatsService;
+		this.taskChangeSequence = taskChangeSequence;
+	}
+
+	/**
+	 * Imports every valid row of the given file as a new task for the given user.
+	 *
+	 * Blank lines are ignored. A CSV file may start with a header line naming its columns; otherwise
+	 * the columns are expected in the order taskName, startDate, dueDate, taskStatus.
+	 *
+	 * @param input the contents of the uploaded file, encoded as UTF-8
+	 * @param format the format of the file
+	 * @param userId the ID of the user who will own the imported tasks
+	 * @return a summary of how many rows were imported and why the remaining rows were rejected
+	 * @throws IOException if the file cannot be read
+	 */
+	@Override
+	public TaskImportResultDTO importTasks(InputStream input, TaskImportFormat format, int userId) throws IOException {
+
+		TaskImportResultDTO result = TaskImportResultDTO.builder()
+				.errors(new ArrayList<>())
+				.build();
+
+		List<WebTaskDTO> batch = new ArrayList<>(BATCH_SIZE);
+		List<String> columns = DEFAULT_COLUMNS;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			int lineNumber = 0;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+
+				if (format == TaskImportFormat.CSV && lineNumber == 1 && isHeader(line)) {
+					columns = parseCsvLine(line).stream()
+							.map(column -> column.trim().toLowerCase(Locale.ROOT))
+							.toList();
+					continue;
+				}
+
+				try {
+					WebTaskDTO task = format == TaskImportFormat.CSV
+							? readCsvRow(line, columns)
+							: readJsonRow(line);
+
+					String violations = validate(task);
+					if (violations != null) {
+						reject(result, lineNumber, violations);
+						continue;
+					}
+
+					batch.add(task);
+					if (batch.size() == BATCH_SIZE) {
+						insertBatch(batch, userId, result);
+					}
+				}
+				catch (IllegalArgumentException e) {
+					reject(result, lineNumber, e.getMessage());
+				}
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			insertBatch(batch, userId, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Persists a batch of validated rows and commits it, then empties the batch. The rows are flushed
+	 * together so Hibernate can send them as JDBC batch inserts, and are cleared afterwards so the
+	 * persistence context does not grow with the size of the file. The user's task counts are
+	 * incremented once for the whole batch, before the flush, so their lock is taken before the new rows'.
+	 *
+	 * @param batch the rows to insert
+	 * @param userId the ID of the user who will own the tasks
+	 * @param result the import summary to update
+	 */
+	private void insertBatch(List<WebTaskDTO> batch, int userId, TaskImportResultDTO result) {
+		transactionTemplate.executeWithoutResult(status -> {
+			long changeSeq = taskChangeSequence.next(userId);
+			User user = entityManager.getReference(User.class, userId);
+			List<Task> tasks = new ArrayList<>(batch.size());
+
+			for (WebTaskDTO webTaskDTO : batch) {
+				Task task = Task.builder()
+						.taskName(webTaskDTO.getTaskName())
+						.startDate(webTaskDTO.getStartDate())
+						.dueDate(webTaskDTO.getDueDate())
+						.taskStatus(webTaskDTO.isTaskStatus())
+						.user(user)
+						.changeSeq(changeSeq)
+						.build();
+				entityManager.persist(task);
+				tasks.add(task);
+			}
+
+			taskStatsService.tasksAdded(userId, tasks);
+			entityManager.flush();
+			entityManager.clear();
+			eventPublisher.publishEvent(new TaskChangedEvent(userId));
+		});
+
+		result.setImportedCount(result.getImportedCount() + batch.size());
+		batch.clear();
+	}
+
+	/**
+	 * Checks a row against the WebTaskDTO constraints.
+	 *
+	 * @param task the row to check
+	 * @return the violation messages joined into one string, or null if the row is valid
+	 */
+	private String validate(WebTaskDTO task) {
+		Set<ConstraintViolation<WebTaskDTO>> violations = validator.validate(task);
+		if (violations.isEmpty()) {
+			return null;
+		}
+
+		return violations.stream()
+				.sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+				.map(ConstraintViolation::getMessage)
+				.collect(Collectors.joining("; "));
+	}
+
+	/**
+	 * Records a rejected row, keeping only the first rejected rows' messages.
+	 *
+	 * @param result the import summary to update
+	 * @param lineNumber the line number of the rejected row
+	 * @param message the reason the row was rejected
+	 */
+	private void reject(TaskImportResultDTO result, int lineNumber, String message) {
+		result.setFailedCount(result.getFailedCount() + 1);
+
+		if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+			result.getErrors().add("Row " + lineNumber + ": " + message);
+		}
+		else {
+			result.setErrorsTruncated(true);
+		}
+	}
+
+	/**
+	 * Reads a task from a single NDJSON line.
+	 *
+	 * @param line the line to read
+	 * @return the task described by the line
+	 * @throws IllegalArgumentException if the line is not a valid JSON task
+	 */
+	private WebTaskDTO readJsonRow(String line) {
+		try {
+			return taskReader.readValue(line);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+		}
+	}
+
+	/**
+	 * Reads a task from a single CSV line.
+	 *
+	 * @param line the line to read
+	 * @param columns the lower-cased column names, in file order
+	 * @return the task described by the line
+	 * @throws IllegalArgumentException if a date or status value cannot be read
+	 */
+	private WebTaskDTO readCsvRow(String line, List<String> columns) {
+		List<String> fields = parseCsvLine(line);
+		WebTaskDTO task = new WebTaskDTO();
+
+		for (int i = 0; i < fields.size() && i < columns.size(); i++) {
+			String value = fields.get(i).trim();
+
+			switch (columns.get(i)) {
+				case "taskname" -> task.setTaskName(value);
+				case "startdate" -> task.setStartDate(parseDate(value, "start date"));
+				case "duedate" -> task.setDueDate(parseDate(value, "due date"));
+				case "taskstatus" -> task.setTaskStatus(parseStatus(value));
+				default -> {
+				}
+			}
+		}
+
+		return task;
+	}
+
+	/**
+	 * Parses an ISO date, treating an empty value as no date.
+	 *
+	 * @param value the value to parse
+	 * @param field the name of the field, used in the error message
+	 * @return the parsed date, or null if the value is empty
+	 * @throws IllegalArgumentException if the value is not an ISO date
+	 */
+	private LocalDate parseDate(String value, String field) {
+		if (value.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return LocalDate.parse(value);
+		}
+		catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid " + field + " '" + value + "', expected yyyy-MM-dd");
+		}
+	}
+
+	/**
+	 * Parses a task status, treating an empty value as pending.
+	 *
+	 * @param value the value to parse
+	 * @return true if the task is completed, false otherwise
+	 * @throws IllegalArgumentException if the value is not true or false
+	 */
+	private boolean parseStatus(String value) {
+		if (value.isEmpty() || value.equalsIgnoreCase("false")) {
+			return false;
+		}
+		if (value.equalsIgnoreCase("true")) {
+			return true;
+		}
+		throw new IllegalArgumentException("Invalid task status '" + value + "', expected true or false");
+	}
+
+	/**
+	 * Determines whether the first line of a CSV file is a header naming the task columns.
+	 *
+	 * @param line the first line of the file
+	 * @return true if the line names the taskName column
+	 */
+	private boolean isHeader(String line) {
+		return parseCsvLine(line).stream()
+				.anyMatch(column -> column.trim().equalsIgnoreCase("taskName"));
+	}
+
+	/**
+	 * Splits a CSV line into its fields. Fields may be enclosed in double quotes, in which case they may
+	 * contain commas and doubled quotes stand for a single quote.
+	 *
+	 * @param line the line to split
+	 * @return the fields of the line
+	 */
+	private List<String> parseCsvLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				}
+				else if (c == '"') {
+					quoted = false;
+				}
+				else {
+					field.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+
+		return fields;
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.taskmanager.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * The authenticated principal of a Task Manager user.
+ *
+ * Besides the username, password and authorities held by Spring Security's {@link User}, it carries the
+ * user's database ID, so controllers can load the user's tasks straight away instead of first looking the
+ * ID up by username. Controllers receive it with {@code @AuthenticationPrincipal}.
+ */
+public class TaskManagerUserDetails extends User {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int id;
+
+	/**
+	 * Constructs a TaskManagerUserDetails.
+	 *
+	 * @param id the user's database ID
+	 * @param username the user's username
+	 * @param password the user's password hash
+	 * @param authorities the authorities granted by the user's roles
+	 */
+	public TaskManagerUserDetails(int id, String username, String password,
+								  Collection<? extends GrantedAuthority> authorities) {
+		super(username, password, authorities);
+		this.id = id;
+	}
+
+	/**
+	 * Returns the user's database ID.
+	 *
+	 * @return the user's ID
+	 */
+	public int getId() {
+		return id;
+	}
+}
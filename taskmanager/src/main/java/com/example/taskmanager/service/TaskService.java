@@ -1,13 +1,16 @@
 package com.example.taskmanager.service;
 
 import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
 import com.example.taskmanager.dto.WebTaskDTO;
 import com.example.taskmanager.entity.Task;
 import com.example.taskmanager.entity.User;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TaskService {
 
@@ -15,17 +18,35 @@ public interface TaskService {
 
     List<TaskDTO> getAllTasks();
 
-    TaskDTO createTask(WebTaskDTO webTaskDTO, String username);
+    Optional<TaskDTO> getTaskByIdAndUserId(int id, int userId);
+
+    TaskDTO createTask(WebTaskDTO webTaskDTO, int userId);
+
+    List<TaskDTO> createTasks(List<WebTaskDTO> webTaskDTOs, int userId);
 
     void deleteTask(int id);
 
+    List<Integer> deleteTasks(Collection<Integer> ids, int userId);
+
     Optional<TaskDTO> getTaskByStartDate(LocalDate startDate);
 
     Optional<TaskDTO> getTaskByDueDate(LocalDate dueDate);
 
     boolean toggleTaskStatus(int id);
 
+    List<Integer> setTaskStatus(Collection<Integer> ids, int userId, boolean taskStatus);
+
     List<TaskDTO> getTasksByUserId(int id);
 
+    List<TaskDTO> getTasksByUsername(String username);
+
+    Stream<TaskDTO> streamTasksByUsername(String username);
+
+    TaskPageDTO getTaskPageByUserId(int userId, String cursor);
+
+    TaskPageDTO getPendingTaskPageByUserId(int userId, String cursor);
+
+    TaskPageDTO getTaskPageByUserId(int userId, TaskStatusFilter filter, String cursor);
+
 
 }
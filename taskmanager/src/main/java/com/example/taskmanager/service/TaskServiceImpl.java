@@ -1,21 +1,34 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.dto.TaskCursor;
 import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
+import com.example.taskmanager.dto.TaskStatusCountDTO;
 import com.example.taskmanager.dto.UserDTO;
 import com.example.taskmanager.dto.WebTaskDTO;
 import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.TaskTombstone;
 import com.example.taskmanager.entity.User;
 import com.example.taskmanager.mapper.TaskMapper;
 import com.example.taskmanager.mapper.UserMapper;
 import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.TaskTombstoneRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the TaskService interface for managing tasks.
@@ -23,26 +36,50 @@ import java.util.stream.Collectors;
 @Service
 public class TaskServiceImpl implements TaskService {
 
+	/**
+	 * Number of tasks shown on one page of a paginated task listing.
+	 */
+	private static final int PAGE_SIZE = 25;
+
+	/**
+	 * Maximum number of IDs bound into the IN list of a single bulk statement.
+	 */
+	private static final int BULK_CHUNK_SIZE = 500;
+
 	private final TaskRepository taskRepository;
+	private final TaskTombstoneRepository taskTombstoneRepository;
 	private final TaskMapper taskMapper;
-	private final UserService userService;
+	private final EntityManager entityManager;
 	private final UserMapper userMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TaskStatsService taskStatsService;
+	private final TaskChangeSequence taskChangeSequence;
 
 	/**
 	 * Constructs a new instance of {@code TaskServiceImpl}.
 	 *
 	 * @param taskRepository the repository to manage tasks
+	 * @param taskTombstoneRepository the repository recording deleted tasks for the sync API
 	 * @param taskMapper the mapper to convert between Task entities and DTOs
-	 * @param userService the service to manage user-related operations
+	 * @param entityManager the entity manager used to reference a task's owner without loading it
 	 * @param userMapper the mapper to convert between User entities and DTOs
+	 * @param eventPublisher the publisher of the {@link TaskChangedEvent} sent when a user's tasks change
+	 * @param taskStatsService the service keeping each user's task counts in step with their tasks
+	 * @param taskChangeSequence the sequence every change is stamped from, for the sync API
 	 */
 	@Autowired
-	public TaskServiceImpl(TaskRepository taskRepository, TaskMapper taskMapper,
-						   UserService userService, UserMapper userMapper) {
+	public TaskServiceImpl(TaskRepository taskRepository, TaskTombstoneRepository taskTombstoneRepository, TaskMapper taskMapper,
+						   EntityManager entityManager, UserMapper userMapper,
+						   ApplicationEventPublisher eventPublisher, TaskStatsService taskStatsService,
+						   TaskChangeSequence taskChangeSequence) {
 		this.taskRepository = taskRepository;
+		this.taskTombstoneRepository = taskTombstoneRepository;
 		this.taskMapper = taskMapper;
-		this.userService = userService;
+		this.entityManager = entityManager;
 		this.userMapper = userMapper;
+		this.eventPublisher = eventPublisher;
+		this.taskStatsService = taskStatsService;
+		this.taskChangeSequence = taskChangeSequence;
 
 	}
 
@@ -54,17 +91,32 @@ public class TaskServiceImpl implements TaskService {
 	 * @return An {@code Optional} containing the {@link TaskDTO} if the task is found, otherwise an empty {@code Optional}.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<TaskDTO> getTaskById(int id) {
 		return taskRepository.findById(id)
 				.map(taskMapper::toDTO);
 	}
 
+	/**
+	 * Retrieves a task of a specific user by its identifier, without loading the Task entity.
+	 *
+	 * @param id the identifier of the task
+	 * @param userId the identifier of the user who must own the task
+	 * @return the task, or an empty Optional if it does not exist or belongs to another user
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<TaskDTO> getTaskByIdAndUserId(int id, int userId) {
+		return taskRepository.findTaskDTOByIdAndUserId(id, userId);
+	}
+
 	/**
 	 * Retrieves all tasks from the repository and converts them to TaskDTO objects.
 	 *
 	 * @return a list of TaskDTO objects representing all tasks.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<TaskDTO> getAllTasks() {
 		return taskMapper.toDTO(taskRepository.findAll());
 	}
@@ -72,18 +124,18 @@ public class TaskServiceImpl implements TaskService {
 	/**
 	 * Creates a new task for the specified user.
 	 *
+	 * The owner is set from a reference to the user's ID, so the user is not loaded from the database.
+	 * The user's task counts are incremented in the same transaction.
+	 *
 	 * @param webTaskDTO the task data transfer object containing the task details
-	 * @param username the username of the user for whom the task is being created
+	 * @param userId the ID of the user for whom the task is being created
 	 * @return the created TaskDTO
-	 * @throws RuntimeException if the user is not found
 	 */
 	@Override
 	@Transactional
-	public TaskDTO createTask(WebTaskDTO webTaskDTO, String username) {
-		User user = userService.getUserByUsername(username);
-		if (user == null) {
-			throw new RuntimeException("User not found with username" + username);
-		}
+	public TaskDTO createTask(WebTaskDTO webTaskDTO, int userId) {
+		long changeSeq = taskChangeSequence.next(userId);
+		User user = entityManager.getReference(User.class, userId);
 
 		Task task = Task.builder()
 				.taskName(webTaskDTO.getTaskName())
@@ -91,17 +143,55 @@ public class TaskServiceImpl implements TaskService {
 				.dueDate(webTaskDTO.getDueDate())
 				.user(user)
 				.taskStatus(false)
+				.changeSeq(changeSeq)
 				.build();
 
 		taskRepository.save(task);
+		taskStatsService.taskAdded(userId, task.isTaskStatus(), task.getDueDate());
+		eventPublisher.publishEvent(new TaskChangedEvent(userId));
 
 		return taskMapper.toDTO(task);
 
 	}
 
+	/**
+	 * Creates several tasks for the specified user in one transaction. The tasks are saved together so
+	 * Hibernate can send them as JDBC batch inserts, and the user's task counts are incremented once for
+	 * all of them.
+	 *
+	 * @param webTaskDTOs the task data transfer objects containing the task details
+	 * @param userId the ID of the user for whom the tasks are being created
+	 * @return the created tasks, in the same order as the given details
+	 */
+	@Override
+	@Transactional
+	public List<TaskDTO> createTasks(List<WebTaskDTO> webTaskDTOs, int userId) {
+		long changeSeq = taskChangeSequence.next(userId);
+		User user = entityManager.getReference(User.class, userId);
+
+		List<Task> tasks = webTaskDTOs.stream()
+				.map(webTaskDTO -> Task.builder()
+						.taskName(webTaskDTO.getTaskName())
+						.startDate(webTaskDTO.getStartDate())
+						.dueDate(webTaskDTO.getDueDate())
+						.user(user)
+						.taskStatus(webTaskDTO.isTaskStatus())
+						.changeSeq(changeSeq)
+						.build())
+				.toList();
+
+		taskRepository.saveAll(tasks);
+		taskStatsService.tasksAdded(userId, tasks);
+		eventPublisher.publishEvent(new TaskChangedEvent(userId));
+
+		return taskMapper.toDTO(tasks);
+	}
+
 	/**
 	 * Deletes a task by its identifier.
-	 * This method retrieves the task by its id, and if found, deletes it from the repository.
+	 * This method retrieves the task by its id, and if found, deletes it from the repository and
+	 * records a tombstone for it. The owner's change sequence number is drawn before the task is
+	 * read with a locking read, so the task's latest state is what gets counted out.
 	 *
 	 * @param id the identifier of the task to be deleted
 	 * @throws RuntimeException if the task with the specified id is not found
@@ -109,11 +199,60 @@ public class TaskServiceImpl implements TaskService {
 	@Override
 	@Transactional
 	public void deleteTask(int id) {
+		long changeSeq = taskChangeSequence.next(findOwnerId(id));
 
-		Task task = taskRepository.findById(id)
+		Task task = taskRepository.findForUpdateById(id)
 						.orElseThrow(() -> new RuntimeException("Task with id : " + id + " not found."));
 
+		taskTombstoneRepository.save(TaskTombstone.builder()
+				.taskId(task.getId())
+				.userId(task.getUser().getId())
+				.deletedAt(Instant.now())
+				.changeSeq(changeSeq)
+				.build());
 		taskRepository.delete(task);
+		taskStatsService.taskRemoved(task.getUser().getId(), task.isTaskStatus(), task.getDueDate());
+		eventPublisher.publishEvent(new TaskChangedEvent(task.getUser().getId()));
+	}
+
+	/**
+	 * Deletes the given tasks of a user in one transaction.
+	 *
+	 * Each chunk of at most {@code BULK_CHUNK_SIZE} IDs is removed with a single
+	 * {@code DELETE ... WHERE id IN (...) AND user_id = ?} statement, so ownership is enforced by the
+	 * database and no task is loaded. IDs that do not exist or belong to another user are skipped.
+	 * Before each chunk is deleted, one query reads which of its IDs are the user's tasks, one counts
+	 * those tasks by status and due date, for adjusting the user's task counts, and one
+	 * {@code INSERT ... SELECT} records tombstones for them. The user's task
+	 * counts are locked before the first chunk is counted, and every other write to the user's tasks
+	 * adjusts them, so none can change the tasks in between.
+	 *
+	 * @param ids the identifiers of the tasks to be deleted
+	 * @param userId the identifier of the user who must own the tasks
+	 * @return the IDs of the tasks deleted
+	 */
+	@Override
+	@Transactional
+	public List<Integer> deleteTasks(Collection<Integer> ids, int userId) {
+		List<Integer> deleted = new ArrayList<>();
+		long changeSeq = taskChangeSequence.next(userId);
+		Instant deletedAt = Instant.now();
+		taskStatsService.lockTaskStats(userId);
+
+		for (List<Integer> chunk : chunk(ids)) {
+			List<Integer> owned = taskRepository.findIdsByIdInAndUserId(chunk, userId);
+			if (owned.isEmpty()) {
+				continue;
+			}
+			List<TaskStatusCountDTO> counts = taskRepository.countByIdInAndUserIdGroupByStatusAndDueDate(owned, userId);
+			taskTombstoneRepository.insertForTasks(owned, userId, deletedAt, changeSeq);
+			taskRepository.deleteByIdInAndUserId(owned, userId);
+			taskStatsService.tasksRemoved(userId, counts);
+			deleted.addAll(owned);
+		}
+		eventPublisher.publishEvent(new TaskChangedEvent(userId));
+
+		return deleted;
 	}
 
 	/**
@@ -123,6 +262,7 @@ public class TaskServiceImpl implements TaskService {
 	 * @return an Optional containing the TaskDTO if a task with the specified start date exists, otherwise an empty Optional
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<TaskDTO> getTaskByStartDate(LocalDate startDate) {
 
 		return taskRepository.findByStartDate(startDate)
@@ -136,6 +276,7 @@ public class TaskServiceImpl implements TaskService {
 	 * @return an Optional containing the TaskDTO if found, otherwise an empty Optional
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<TaskDTO> getTaskByDueDate(LocalDate dueDate) {
 
 		return taskRepository.findByDueDate(dueDate)
@@ -145,6 +286,9 @@ public class TaskServiceImpl implements TaskService {
 	/**
 	 * Toggles the status of a task identified by its ID.
 	 *
+	 * The owner's change sequence number is drawn before the task is read with a locking read, so the
+	 * status is toggled from its latest committed value.
+	 *
 	 * @param id the ID of the task whose status is to be toggled
 	 * @return the new status of the task after toggling
 	 * @throws RuntimeException if the task with the given ID is not found
@@ -152,27 +296,227 @@ public class TaskServiceImpl implements TaskService {
 	@Override
 	@Transactional
 	public boolean toggleTaskStatus(int id) {
+		long changeSeq = taskChangeSequence.next(findOwnerId(id));
 
-		Task task = taskRepository.findById(id)
+		Task task = taskRepository.findForUpdateById(id)
 				.orElseThrow(() -> new RuntimeException("Task with id: " + id + " not found."));
 
 		task.setTaskStatus(!task.isTaskStatus());
+		task.setChangeSeq(changeSeq);
 
 		taskRepository.save(task);
+		taskStatsService.taskStatusChanged(task.getUser().getId(), task.isTaskStatus(), task.getDueDate());
+		eventPublisher.publishEvent(new TaskChangedEvent(task.getUser().getId()));
 
 		return task.isTaskStatus();
 	}
 
+	/**
+	 * Sets an explicit status on the given tasks of a user in one transaction.
+	 *
+	 * Each chunk of at most {@code BULK_CHUNK_SIZE} IDs is updated with a single
+	 * {@code UPDATE ... WHERE id IN (...) AND user_id = ?} statement. No task is loaded, so there is
+	 * no read-modify-write race with concurrent submits, and repeating the call has no further effect.
+	 * Before each chunk is updated, one query reads which of its IDs are the user's tasks and one counts
+	 * those tasks by status and due date, for moving the tasks that change between the user's task
+	 * counts; locking those counts first keeps other writes from changing the tasks in between.
+	 *
+	 * @param ids the identifiers of the tasks to update
+	 * @param userId the identifier of the user who must own the tasks
+	 * @param taskStatus the status to set, true for completed
+	 * @return the IDs of the tasks matched by the update
+	 */
+	@Override
+	@Transactional
+	public List<Integer> setTaskStatus(Collection<Integer> ids, int userId, boolean taskStatus) {
+		List<Integer> updated = new ArrayList<>();
+		long changeSeq = taskChangeSequence.next(userId);
+		taskStatsService.lockTaskStats(userId);
+
+		for (List<Integer> chunk : chunk(ids)) {
+			List<Integer> owned = taskRepository.findIdsByIdInAndUserId(chunk, userId);
+			if (owned.isEmpty()) {
+				continue;
+			}
+			List<TaskStatusCountDTO> counts = taskRepository.countByIdInAndUserIdGroupByStatusAndDueDate(owned, userId);
+			taskRepository.updateStatusByIdInAndUserId(owned, userId, taskStatus, changeSeq);
+			taskStatsService.taskStatusSet(userId, counts, taskStatus);
+			updated.addAll(owned);
+		}
+		eventPublisher.publishEvent(new TaskChangedEvent(userId));
+
+		return updated;
+	}
+
 	/**
 	 * Retrieves a list of tasks for a specified user by their user ID.
 	 *
+	 * The tasks are read straight into DTOs, without loading Task entities.
+	 *
 	 * @param id the user ID to fetch tasks for
 	 * @return a list of TaskDTO objects associated with the specified user
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<TaskDTO> getTasksByUserId(int id) {
-		return taskRepository.findTasksByUserId(id)
-				.stream().map(taskMapper::toDTO)
-				.collect(Collectors.toList());
+		return taskRepository.findTaskDTOsByUserId(id);
+	}
+
+	/**
+	 * Retrieves a list of tasks for a specified user by their username, in a single query.
+	 *
+	 * @param username the username of the user to fetch tasks for
+	 * @return a list of TaskDTO objects associated with the specified user
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<TaskDTO> getTasksByUsername(String username) {
+		return taskRepository.findTaskDTOsByUsername(username);
+	}
+
+	/**
+	 * Streams the tasks of a specified user by their username, reading them from the database as the
+	 * stream is consumed, so that a listing of any size can be rendered in constant memory.
+	 *
+	 * The rows are read over the caller's connection, so the caller must hold a transaction until it
+	 * has consumed and closed the stream.
+	 *
+	 * @param username the username of the user to stream tasks for
+	 * @return a stream of the user's tasks, ordered by id, which must be closed after use
+	 */
+	@Override
+	@Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+	public Stream<TaskDTO> streamTasksByUsername(String username) {
+		return taskRepository.streamTaskDTOsByUsername(username);
+	}
+
+	/**
+	 * Retrieves one page of a user's tasks, ordered by due date and then id.
+	 *
+	 * @param userId the user ID to fetch tasks for
+	 * @param cursor the token of the previous page's last task, or null for the first page
+	 * @return the requested page of tasks together with the cursor of the next page
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskPageDTO getTaskPageByUserId(int userId, String cursor) {
+		return getTaskPageByUserId(userId, TaskStatusFilter.ALL, cursor);
+	}
+
+	/**
+	 * Retrieves one page of a user's pending tasks, ordered by due date and then id.
+	 *
+	 * @param userId the user ID to fetch tasks for
+	 * @param cursor the token of the previous page's last task, or null for the first page
+	 * @return the requested page of pending tasks together with the cursor of the next page
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskPageDTO getPendingTaskPageByUserId(int userId, String cursor) {
+		return getTaskPageByUserId(userId, TaskStatusFilter.PENDING, cursor);
+	}
+
+	/**
+	 * Retrieves one page of the subset of a user's tasks selected by the filter, ordered by due date
+	 * and then id. The filter is part of the query, so only the tasks on the page are read.
+	 *
+	 * @param userId the user ID to fetch tasks for
+	 * @param filter the subset of the user's tasks to list
+	 * @param cursor the token of the previous page's last task, or null for the first page
+	 * @return the requested page of tasks together with the cursor of the next page
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskPageDTO getTaskPageByUserId(int userId, TaskStatusFilter filter, String cursor) {
+		TaskCursor after = parseCursor(cursor);
+		Pageable pageable = PageRequest.of(0, PAGE_SIZE + 1);
+		boolean firstPageOrNullDueDate = after == null || after.getDueDate() == null;
+		int afterId = after == null ? 0 : after.getId();
+
+		List<TaskDTO> tasks = switch (filter) {
+			case ALL -> firstPageOrNullDueDate
+					? taskRepository.findTaskPageByUserIdAfterNullDueDate(userId, afterId, pageable)
+					: taskRepository.findTaskPageByUserIdAfterDueDate(userId, after.getDueDate(), afterId, pageable);
+			case PENDING, COMPLETED -> firstPageOrNullDueDate
+					? taskRepository.findTaskPageByUserIdAndStatusAfterNullDueDate(userId, filter == TaskStatusFilter.COMPLETED,
+							afterId, pageable)
+					: taskRepository.findTaskPageByUserIdAndStatusAfterDueDate(userId, filter == TaskStatusFilter.COMPLETED,
+							after.getDueDate(), afterId, pageable);
+			// Overdue tasks always have a due date, so a cursor without one can only mean the first page
+			case OVERDUE -> firstPageOrNullDueDate
+					? taskRepository.findOverdueTaskPageByUserId(userId, LocalDate.now(), pageable)
+					: taskRepository.findOverdueTaskPageByUserIdAfterDueDate(userId, LocalDate.now(),
+							after.getDueDate(), afterId, pageable);
+		};
+
+		return toPage(tasks);
+	}
+
+	/**
+	 * Looks up the ID of the user who owns a task, whose change sequence a change to the task draws from.
+	 *
+	 * @param id the ID of the task
+	 * @return the owner's ID
+	 * @throws RuntimeException if the task with the given ID is not found
+	 */
+	private int findOwnerId(int id) {
+		return taskRepository.findUserIdById(id)
+				.orElseThrow(() -> new RuntimeException("Task with id: " + id + " not found."));
+	}
+
+	/**
+	 * Splits a collection of task IDs into distinct chunks no larger than {@code BULK_CHUNK_SIZE}.
+	 *
+	 * @param ids the task IDs to split, may contain duplicates
+	 * @return the chunks of distinct IDs
+	 */
+	private List<List<Integer>> chunk(Collection<Integer> ids) {
+		List<Integer> distinctIds = ids.stream().distinct().toList();
+		List<List<Integer>> chunks = new ArrayList<>();
+
+		for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+			chunks.add(distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size())));
+		}
+
+		return chunks;
+	}
+
+	/**
+	 * Parses a page cursor, falling back to the first page when the token is malformed.
+	 *
+	 * @param cursor the cursor token supplied by the client
+	 * @return the parsed cursor, or null for the first page
+	 */
+	private TaskCursor parseCursor(String cursor) {
+		try {
+			return TaskCursor.fromToken(cursor);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Converts a result fetched with one row of look-ahead into a page.
+	 *
+	 * The repository is asked for {@code PAGE_SIZE + 1} rows; the extra row only tells us
+	 * that another page exists and is not returned.
+	 *
+	 * @param tasks the fetched tasks, at most one more than the page size
+	 * @return the page of tasks with the cursor of the next page, if there is one
+	 */
+	private TaskPageDTO toPage(List<TaskDTO> tasks) {
+		boolean hasNext = tasks.size() > PAGE_SIZE;
+		List<TaskDTO> pageTasks = hasNext ? tasks.subList(0, PAGE_SIZE) : tasks;
+
+		String nextCursor = null;
+		if (hasNext) {
+			TaskDTO last = pageTasks.get(pageTasks.size() - 1);
+			nextCursor = new TaskCursor(last.getDueDate(), last.getId()).toToken();
+		}
+
+		return TaskPageDTO.builder()
+				.tasks(pageTasks)
+				.nextCursor(nextCursor)
+				.build();
 	}
 }
@@ -0,0 +1,30 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskStatsDTO;
+import com.example.taskmanager.dto.TaskStatusCountDTO;
+import com.example.taskmanager.entity.Task;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface TaskStatsService {
+
+	TaskStatsDTO getTaskStats(int userId);
+
+	void taskAdded(int userId, boolean taskStatus, LocalDate dueDate);
+
+	void tasksAdded(int userId, Collection<Task> tasks);
+
+	void taskRemoved(int userId, boolean taskStatus, LocalDate dueDate);
+
+	void taskStatusChanged(int userId, boolean taskStatus, LocalDate dueDate);
+
+	void lockTaskStats(int userId);
+
+	void tasksRemoved(int userId, Collection<TaskStatusCountDTO> counts);
+
+	void taskStatusSet(int userId, Collection<TaskStatusCountDTO> counts, boolean taskStatus);
+
+	int reconcile();
+
+}
@@ -0,0 +1,322 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskStatsDTO;
+import com.example.taskmanager.dto.TaskStatusCountDTO;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.repository.UserTaskStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the TaskStatsService interface, which keeps the user_task_stats table in step with
+ * the task table so a user's pending, completed and overdue counts cost one primary-key lookup.
+ *
+ * Every change adjusts the counts with an atomic increment in the transaction that changes the tasks,
+ * so the counts commit or roll back together with them. Bulk changes by task ID read how many of the
+ * tasks in each chunk have each status and due date before changing them, and adjust the counts by
+ * those numbers. They lock the user's counts first, so no other change to the user's tasks can commit
+ * between a chunk being counted and being changed.
+ *
+ * A pending task becomes overdue when its due date passes, without any change being made to it, so
+ * every user's counts are recounted shortly after midnight, and when the application starts.
+ */
+@Service
+public class TaskStatsServiceImpl implements TaskStatsService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskStatsServiceImpl.class);
+
+	private final UserTaskStatsRepository userTaskStatsRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Constructs a new TaskStatsServiceImpl with the given dependencies.
+	 *
+	 * @param userTaskStatsRepository the repository holding the task counts
+	 * @param transactionTemplate the template used to recount each user's counts in its own transaction
+	 * @param eventPublisher the publisher of the {@link TaskChangedEvent} sent when a recount corrects a user's counts
+	 */
+	@Autowired
+	public TaskStatsServiceImpl(UserTaskStatsRepository userTaskStatsRepository, TransactionTemplate transactionTemplate,
+								ApplicationEventPublisher eventPublisher) {
+		this.userTaskStatsRepository = userTaskStatsRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+	}
+
+	/**
+	 * Retrieves the task counts of a user with a single primary-key lookup.
+	 *
+	 * @param userId the ID of the user whose counts are to be fetched
+	 * @return the counts, all zero if none are stored for the user yet
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskStatsDTO getTaskStats(int userId) {
+		return userTaskStatsRepository.findTaskStatsByUserId(userId)
+				.orElseGet(TaskStatsDTO::new);
+	}
+
+	/**
+	 * Counts a task that was just created. Must run in the transaction that creates it.
+	 *
+	 * @param userId the ID of the user who owns the task
+	 * @param taskStatus the status of the task, true for completed
+	 * @param dueDate the due date of the task, may be null
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void taskAdded(int userId, boolean taskStatus, LocalDate dueDate) {
+		adjust(userId, taskStatus ? 0 : 1, taskStatus ? 1 : 0, isOverdue(taskStatus, dueDate) ? 1 : 0);
+	}
+
+	/**
+	 * Counts several tasks that were just created for one user, with a single increment. Must run in
+	 * the transaction that creates them.
+	 *
+	 * @param userId the ID of the user who owns the tasks
+	 * @param tasks the created tasks
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void tasksAdded(int userId, Collection<Task> tasks) {
+		long pending = 0;
+		long completed = 0;
+		long overdue = 0;
+
+		for (Task task : tasks) {
+			if (task.isTaskStatus()) {
+				completed++;
+			}
+			else {
+				pending++;
+			}
+			if (isOverdue(task.isTaskStatus(), task.getDueDate())) {
+				overdue++;
+			}
+		}
+
+		adjust(userId, pending, completed, overdue);
+	}
+
+	/**
+	 * Stops counting a task that was just deleted. Must run in the transaction that deletes it.
+	 *
+	 * @param userId the ID of the user who owned the task
+	 * @param taskStatus the status the task had, true for completed
+	 * @param dueDate the due date the task had, may be null
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void taskRemoved(int userId, boolean taskStatus, LocalDate dueDate) {
+		adjust(userId, taskStatus ? 0 : -1, taskStatus ? -1 : 0, isOverdue(taskStatus, dueDate) ? -1 : 0);
+	}
+
+	/**
+	 * Moves a task whose status was just changed from one count to the other. Must run in the
+	 * transaction that changes it.
+	 *
+	 * @param userId the ID of the user who owns the task
+	 * @param taskStatus the new status of the task, true for completed
+	 * @param dueDate the due date of the task, may be null
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void taskStatusChanged(int userId, boolean taskStatus, LocalDate dueDate) {
+		int completed = taskStatus ? 1 : -1;
+		int overdue = isOverdue(false, dueDate) ? -completed : 0;
+
+		adjust(userId, -completed, completed, overdue);
+	}
+
+	/**
+	 * Locks a user's counts until the end of the transaction, storing them first if the user has none
+	 * yet. Must run in a transaction that changes the user's tasks in bulk, before it reads them; every
+	 * other change to the user's tasks adjusts the counts, so it waits for that transaction to end.
+	 * Single-task changes lock the same row before touching their task, when they draw the user's change
+	 * sequence number, so they never hold a task this transaction is waiting for.
+	 *
+	 * @param userId the ID of the user whose counts are locked
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void lockTaskStats(int userId) {
+		if (userTaskStatsRepository.findForUpdateByUserId(userId).isPresent()) {
+			return;
+		}
+
+		if (userTaskStatsRepository.insertEmpty(userId) > 0) {
+			userTaskStatsRepository.recount(userId, LocalDate.now());
+		}
+		else {
+			// Another transaction stored the counts since the locking read; lock the stored row instead
+			userTaskStatsRepository.findForUpdateByUserId(userId);
+		}
+	}
+
+	/**
+	 * Stops counting tasks that were just deleted together. Must run in the transaction that deletes
+	 * them, after the delete.
+	 *
+	 * @param userId the ID of the user who owned the tasks
+	 * @param counts the number of deleted tasks for each status and due date, read before the delete
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void tasksRemoved(int userId, Collection<TaskStatusCountDTO> counts) {
+		long pending = 0;
+		long completed = 0;
+		long overdue = 0;
+
+		for (TaskStatusCountDTO count : counts) {
+			if (count.isTaskStatus()) {
+				completed -= count.getCount();
+			}
+			else {
+				pending -= count.getCount();
+			}
+			if (isOverdue(count.isTaskStatus(), count.getDueDate())) {
+				overdue -= count.getCount();
+			}
+		}
+
+		adjust(userId, pending, completed, overdue);
+	}
+
+	/**
+	 * Moves tasks whose status was just set together from one count to the other. Tasks that already
+	 * had the status are not moved. Must run in the transaction that sets it, after the update.
+	 *
+	 * @param userId the ID of the user who owns the tasks
+	 * @param counts the number of updated tasks for each status and due date, read before the update
+	 * @param taskStatus the status that was set, true for completed
+	 */
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void taskStatusSet(int userId, Collection<TaskStatusCountDTO> counts, boolean taskStatus) {
+		long completed = 0;
+		long overdue = 0;
+
+		for (TaskStatusCountDTO count : counts) {
+			if (count.isTaskStatus() == taskStatus) {
+				continue;
+			}
+			long moved = taskStatus ? count.getCount() : -count.getCount();
+			completed += moved;
+			if (isOverdue(false, count.getDueDate())) {
+				overdue -= moved;
+			}
+		}
+
+		adjust(userId, -completed, completed, overdue);
+	}
+
+	/**
+	 * Recounts every user's counts from the task table. Runs every night just after midnight, when
+	 * the tasks due the day before become overdue. Counts are added for users who have none and
+	 * removed for users who no longer exist; each user is then recounted in a transaction of its own,
+	 * so the users' counts are only locked one at a time. A {@link TaskChangedEvent} is published for
+	 * every user whose counts the recount changed, so their cached pages and ETags are refreshed.
+	 *
+	 * @return the number of users whose counts were recounted
+	 */
+	@Override
+	@Scheduled(cron = "0 1 0 * * *")
+	public int reconcile() {
+		LocalDate today = LocalDate.now();
+
+		Integer added = transactionTemplate.execute(status -> {
+			userTaskStatsRepository.deleteOrphans();
+			return userTaskStatsRepository.insertMissing(today);
+		});
+
+		List<Integer> userIds = userTaskStatsRepository.findAllUserIds();
+		int corrected = 0;
+		for (int userId : userIds) {
+			if (Boolean.TRUE.equals(transactionTemplate.execute(status -> recountAndPublish(userId, today)))) {
+				corrected++;
+			}
+		}
+
+		logger.info("Recounted the task counts of {} users, {} of them new and {} corrected", userIds.size(), added, corrected);
+		return userIds.size();
+	}
+
+	/**
+	 * Recounts every user's counts when the application starts, in case tasks were changed while it
+	 * was not running or the night's recount was missed.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconcileOnStartup() {
+		reconcile();
+	}
+
+	/**
+	 * Recounts one user's counts, and publishes a {@link TaskChangedEvent} for the user if that changed
+	 * them. Must run in a transaction, after which the event is delivered.
+	 *
+	 * @param userId the ID of the user whose counts are recounted
+	 * @param today the current date, used to decide which pending tasks are overdue
+	 * @return true if the counts changed
+	 */
+	private boolean recountAndPublish(int userId, LocalDate today) {
+		Optional<TaskStatsDTO> before = userTaskStatsRepository.findTaskStatsByUserId(userId);
+		userTaskStatsRepository.recount(userId, today);
+
+		if (before.equals(userTaskStatsRepository.findTaskStatsByUserId(userId))) {
+			return false;
+		}
+
+		eventPublisher.publishEvent(new TaskChangedEvent(userId));
+		return true;
+	}
+
+	/**
+	 * Adds the given amounts to a user's counts. If the user has no counts yet, they are counted from
+	 * the task table instead, which already includes the change being counted, once the flush before
+	 * the recount has written it.
+	 *
+	 * @param userId the ID of the user whose counts are adjusted
+	 * @param pending the amount added to the pending count
+	 * @param completed the amount added to the completed count
+	 * @param overdue the amount added to the overdue count
+	 */
+	private void adjust(int userId, long pending, long completed, long overdue) {
+		if (userTaskStatsRepository.increment(userId, pending, completed, overdue) > 0) {
+			return;
+		}
+
+		if (userTaskStatsRepository.insertEmpty(userId) > 0) {
+			userTaskStatsRepository.recount(userId, LocalDate.now());
+		}
+		else {
+			// Another transaction stored the counts since the increment; they do not include this change yet
+			userTaskStatsRepository.increment(userId, pending, completed, overdue);
+		}
+	}
+
+	/**
+	 * Tells whether a task counts as overdue today.
+	 *
+	 * @param taskStatus the status of the task, true for completed
+	 * @param dueDate the due date of the task, may be null
+	 * @return true if the task is pending and its due date has passed
+	 */
+	private boolean isOverdue(boolean taskStatus, LocalDate dueDate) {
+		return !taskStatus && dueDate != null && dueDate.isBefore(LocalDate.now());
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.taskmanager.service;
+
+/**
+ * The subsets of a user's tasks that the task listings can show.
+ *
+ * The filter is applied by the database query, so a listing only loads the tasks it displays.
+ * Overdue tasks are pending tasks whose due date is before today; tasks without a due date are
+ * never overdue.
+ */
+public enum TaskStatusFilter {
+
+	ALL("All"),
+	PENDING("Pending"),
+	COMPLETED("Completed"),
+	OVERDUE("Overdue");
+
+	private final String label;
+
+	/**
+	 * Constructs a TaskStatusFilter.
+	 *
+	 * @param label the name of the filter shown in the views
+	 */
+	TaskStatusFilter(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Returns the name of the filter shown in the views.
+	 *
+	 * @return the filter's label
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Tells whether a listing with this filter shows a task with the given status. An overdue task
+	 * marked pending stays overdue.
+	 *
+	 * @param taskStatus the task's status, true if it is completed
+	 * @return true if the listing shows such a task
+	 */
+	public boolean shows(boolean taskStatus) {
+		return switch (this) {
+			case ALL -> true;
+			case PENDING, OVERDUE -> !taskStatus;
+			case COMPLETED -> taskStatus;
+		};
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskSyncDTO;
+
+public interface TaskSyncService {
+
+	TaskSyncDTO getChanges(int userId, String token, String cursor);
+
+	int purgeTombstones();
+
+}
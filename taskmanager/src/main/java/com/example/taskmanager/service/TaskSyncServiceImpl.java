@@ -0,0 +1,232 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskCursor;
+import com.example.taskmanager.dto.TaskPageDTO;
+import com.example.taskmanager.dto.TaskSyncDTO;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.TaskTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implementation of the TaskSyncService interface, which tells offline-capable clients what changed in
+ * a user's task list since their last sync.
+ *
+ * Every write stamps the tasks and tombstones it touches with a number from their owner's sequence in
+ * {@link TaskChangeSequence}, and a user's numbers become visible in the order they were drawn. A sync
+ * token holds the highest number of the user's sequence the client has seen every change up to,
+ * together with the time it was issued. Changed tasks are found through
+ * task.change_seq and deleted ones through the task_tombstone table, both indexed by user and change
+ * sequence, so a sync reads only the rows that changed.
+ *
+ * A full sync is paged with the keyset cursor of the task listings, so no request reads more than one
+ * page of tasks. The token is read when the first page is, carried in the cursor of every following
+ * page, and only returned with the last one. Changes made while the client pages through are stamped
+ * with later numbers, so the sync after the full one sends them even if their pages were already read.
+ */
+@Service
+public class TaskSyncServiceImpl implements TaskSyncService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskSyncServiceImpl.class);
+
+	/**
+	 * How long tombstones are kept. Tokens issued longer ago than this are rejected.
+	 */
+	private static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+	/**
+	 * Separates the sync token from the task cursor in the cursor of a full sync's next page.
+	 */
+	private static final char CURSOR_SEPARATOR = '~';
+
+	private final TaskRepository taskRepository;
+	private final TaskTombstoneRepository taskTombstoneRepository;
+	private final TaskChangeSequence taskChangeSequence;
+	private final TaskService taskService;
+
+	/**
+	 * Constructs a new TaskSyncServiceImpl with the given dependencies.
+	 *
+	 * @param taskRepository the repository used to read changed tasks
+	 * @param taskTombstoneRepository the repository used to read and purge tombstones
+	 * @param taskChangeSequence the sequence the changes are stamped from
+	 * @param taskService the service whose keyset-paginated listing pages a full sync
+	 */
+	@Autowired
+	public TaskSyncServiceImpl(TaskRepository taskRepository, TaskTombstoneRepository taskTombstoneRepository,
+							   TaskChangeSequence taskChangeSequence, TaskService taskService) {
+		this.taskRepository = taskRepository;
+		this.taskTombstoneRepository = taskTombstoneRepository;
+		this.taskChangeSequence = taskChangeSequence;
+		this.taskService = taskService;
+	}
+
+	/**
+	 * Retrieves the changes to a user's tasks since a sync token. Without a token every task of the user
+	 * is returned, one page per call, for a client's first sync.
+	 *
+	 * The next token is read before the changes, so every change it covers has committed and is read
+	 * too. Changes committed in between are sent again on the next sync, which clients apply idempotently.
+	 *
+	 * @param userId the ID of the user whose tasks are synced
+	 * @param token the token returned by the previous sync, or null for a full sync
+	 * @param cursor the cursor returned by the previous page of a full sync, or null for its first page;
+	 *        ignored when a token is given
+	 * @return the changed tasks, the IDs of deleted tasks and the token for the next sync, or the cursor
+	 *         of the next page of a full sync
+	 * @throws IllegalArgumentException if the token or cursor is malformed
+	 * @throws SyncTokenExpiredException if the token is older than the tombstone retention period
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskSyncDTO getChanges(int userId, String token, String cursor) {
+		Instant now = Instant.now();
+		SyncToken since = parseToken(token);
+
+		if (since == null) {
+			return getFullSyncPage(userId, cursor, now);
+		}
+
+		checkNotExpired(since, token, now);
+		String next = toToken(taskChangeSequence.current(userId), now);
+
+		return TaskSyncDTO.builder()
+				.changed(taskRepository.findTaskDTOsByUserIdChangedAfter(userId, since.changeSeq()))
+				.deleted(taskTombstoneRepository.findTaskIdsByUserIdDeletedAfter(userId, since.changeSeq()))
+				.token(next)
+				.build();
+	}
+
+	/**
+	 * Deletes the tombstones older than the retention period. Runs every night.
+	 *
+	 * @return the number of tombstones deleted
+	 */
+	@Override
+	@Transactional
+	@Scheduled(cron = "0 30 3 * * *")
+	public int purgeTombstones() {
+		int purged = taskTombstoneRepository.deleteByDeletedAtBefore(Instant.now().minus(TOMBSTONE_RETENTION));
+		logger.info("Purged {} task tombstones older than {} days", purged, TOMBSTONE_RETENTION.toDays());
+		return purged;
+	}
+
+	/**
+	 * Retrieves one page of a full sync. The first page reads the token the full sync ends with; later
+	 * pages take it from their cursor.
+	 *
+	 * @param userId the ID of the user whose tasks are synced
+	 * @param cursor the cursor returned by the previous page, or null for the first page
+	 * @param now the time of the request
+	 * @return the page of tasks, and the cursor of the next page or, on the last page, the token
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 * @throws SyncTokenExpiredException if the full sync began longer ago than the tombstone retention period
+	 */
+	private TaskSyncDTO getFullSyncPage(int userId, String cursor, Instant now) {
+		String token;
+		String taskCursor;
+
+		if (cursor == null || cursor.isBlank()) {
+			token = toToken(taskChangeSequence.current(userId), now);
+			taskCursor = null;
+		}
+		else {
+			int separator = cursor.indexOf(CURSOR_SEPARATOR);
+			if (separator < 0) {
+				throw new IllegalArgumentException("Invalid sync cursor: " + cursor);
+			}
+			token = cursor.substring(0, separator);
+			taskCursor = cursor.substring(separator + 1);
+
+			// The listing treats a malformed cursor as the first page, which would restart the sync
+			SyncToken begun = parseToken(token);
+			if (begun == null || TaskCursor.fromToken(taskCursor) == null) {
+				throw new IllegalArgumentException("Invalid sync cursor: " + cursor);
+			}
+			checkNotExpired(begun, token, now);
+		}
+
+		TaskPageDTO page = taskService.getTaskPageByUserId(userId, taskCursor);
+		boolean lastPage = page.getNextCursor() == null;
+
+		return TaskSyncDTO.builder()
+				.changed(page.getTasks())
+				.deleted(List.of())
+				.token(lastPage ? token : null)
+				.nextCursor(lastPage ? null : token + CURSOR_SEPARATOR + page.getNextCursor())
+				.build();
+	}
+
+	/**
+	 * Rejects a token issued longer ago than the tombstone retention period, since the tombstones of
+	 * tasks deleted after it may already be purged.
+	 *
+	 * @param since the parsed token
+	 * @param token the token as supplied by the client
+	 * @param now the time of the request
+	 * @throws SyncTokenExpiredException if the token is older than the tombstone retention period
+	 */
+	private void checkNotExpired(SyncToken since, String token, Instant now) {
+		if (since.issuedAt().isBefore(now.minus(TOMBSTONE_RETENTION))) {
+			throw new SyncTokenExpiredException("Sync token " + token + " is older than " + TOMBSTONE_RETENTION.toDays() + " days");
+		}
+	}
+
+	/**
+	 * Parses a sync token.
+	 *
+	 * @param token the token supplied by the client, may be null or blank for a full sync
+	 * @return the change sequence number and issue time the token stands for, or null for a full sync
+	 * @throws IllegalArgumentException if the token is malformed
+	 * @throws SyncTokenExpiredException if the token is a timestamp handed out before change sequence tokens
+	 */
+	private SyncToken parseToken(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+
+		int separator = token.indexOf('.');
+		if (separator < 0) {
+			if (token.chars().allMatch(Character::isDigit)) {
+				throw new SyncTokenExpiredException("Sync token " + token + " predates change sequence tokens");
+			}
+			throw new IllegalArgumentException("Invalid sync token: " + token);
+		}
+
+		try {
+			return new SyncToken(Long.parseLong(token.substring(0, separator)),
+					Instant.ofEpochMilli(Long.parseLong(token.substring(separator + 1))));
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid sync token: " + token, e);
+		}
+	}
+
+	/**
+	 * Encodes a change sequence number and the time it was read as a sync token.
+	 *
+	 * @param changeSeq the change sequence number up to which the client has seen every change
+	 * @param issuedAt the time the token is issued
+	 * @return the token
+	 */
+	private String toToken(long changeSeq, Instant issuedAt) {
+		return changeSeq + "." + issuedAt.toEpochMilli();
+	}
+
+	/**
+	 * The contents of a sync token.
+	 *
+	 * @param changeSeq the change sequence number up to which the client has seen every change
+	 * @param issuedAt the time the token was issued, checked against the tombstone retention period
+	 */
+	private record SyncToken(long changeSeq, Instant issuedAt) {
+	}
+}
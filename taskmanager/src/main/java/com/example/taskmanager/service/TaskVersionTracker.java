@@ -0,0 +1,148 @@
+package com.example.taskmanager.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version number for each user's tasks, used to answer conditional GET requests for the task
+ * pages without querying the database or rendering a template.
+ *
+ * Every {@link TaskChangedEvent} bumps the user's version once the change has committed. The versions
+ * only live in memory, so each ETag also carries an epoch chosen at startup; after a restart every
+ * ETag handed out before it stops matching.
+ */
+@Component
+public class TaskVersionTracker {
+
+	private final ConcurrentMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+
+	private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+	/**
+	 * Returns the current version of a user's tasks.
+	 *
+	 * @param userId the ID of the user
+	 * @return the version, 0 if the user's tasks have not changed since startup
+	 */
+	public long getVersion(int userId) {
+		AtomicLong version = versions.get(userId);
+		return version == null ? 0 : version.get();
+	}
+
+	/**
+	 * Records that a user's tasks have changed. Inside a transaction the version is bumped after it
+	 * commits, so a request can not tag the data from before the change with the new version. The
+	 * version is bumped before any other listener hears of the change.
+	 *
+	 * @param event the event naming the user whose tasks changed
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onTaskChanged(TaskChangedEvent event) {
+		bump(event.userId());
+	}
+
+	/**
+	 * Builds a strong ETag for a representation of a user's tasks.
+	 *
+	 * Besides the version, the tag covers the current date, since the overdue tasks change with it.
+	 *
+	 * @param userId the ID of the user the tasks belong to
+	 * @return the quoted ETag value
+	 */
+	public String getETag(int userId) {
+		return "\"" + tag(userId) + "\"";
+	}
+
+	/**
+	 * Checks an If-Match header against a user's current ETag and, if it matches, claims the version in
+	 * the same atomic step by bumping it. A write that is allowed to go ahead this way has already made
+	 * every copy of the tag stale, so of two writes sent with the same tag only the first can pass, even
+	 * while the first is still running. A write that then fails leaves the tag changed, which only costs
+	 * its clients a fresh read.
+	 *
+	 * @param userId the ID of the user whose tasks are about to be written
+	 * @param ifMatch the value of the If-Match header, a list of quoted tags or *
+	 * @return true if the header matched and the write may go ahead, false if it must be refused with 412
+	 */
+	public boolean compareAndIncrement(int userId, String ifMatch) {
+		AtomicLong version = versions.computeIfAbsent(userId, id -> new AtomicLong());
+
+		while (true) {
+			long current = version.get();
+			if (!matches(ifMatch, "\"" + tag(userId, current) + "\"")) {
+				return false;
+			}
+			if (version.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Builds a strong ETag for a task page of a user rendered for a session. The tag also covers the
+	 * session, since the page carries the session's CSRF token in its forms.
+	 *
+	 * @param userId the ID of the user the page belongs to
+	 * @param sessionId the ID of the session the page is rendered for
+	 * @return the quoted ETag value
+	 */
+	public String getETag(int userId, String sessionId) {
+		return "\"" + tag(userId) + "-" + Integer.toHexString(sessionId.hashCode()) + "\"";
+	}
+
+	/**
+	 * Builds the unquoted part of an ETag shared by every representation of a user's tasks.
+	 *
+	 * @param userId the ID of the user
+	 * @return the tag
+	 */
+	private String tag(int userId) {
+		return tag(userId, getVersion(userId));
+	}
+
+	/**
+	 * Builds the unquoted part of an ETag for a given version of a user's tasks.
+	 *
+	 * @param userId the ID of the user
+	 * @param version the version of the user's tasks
+	 * @return the tag
+	 */
+	private String tag(int userId, long version) {
+		return epoch + "-" + userId + "-" + version + "-" + LocalDate.now().toEpochDay();
+	}
+
+	/**
+	 * Checks whether an If-Match header names an ETag, using the strong comparison If-Match calls for.
+	 *
+	 * @param ifMatch the value of the If-Match header
+	 * @param eTag the quoted ETag
+	 * @return true if the header is * or lists the tag
+	 */
+	private boolean matches(String ifMatch, String eTag) {
+		for (String candidate : ifMatch.split(",")) {
+			String trimmed = candidate.trim();
+			if (trimmed.equals("*") || trimmed.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Increments a user's version.
+	 *
+	 * @param userId the ID of the user
+	 */
+	private void bump(int userId) {
+		versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+	}
+}
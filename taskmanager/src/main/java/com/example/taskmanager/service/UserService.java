@@ -1,12 +1,15 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.dto.AdminUserPageDTO;
 import com.example.taskmanager.dto.UserDTO;
 import com.example.taskmanager.dto.WebUserDTO;
 import com.example.taskmanager.entity.User;
 import jakarta.servlet.http.HttpSession;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
 
@@ -14,17 +17,23 @@ public interface UserService {
 
 	User getUserByUsername(String username);
 
+	User getUserWithRolesByUsername(String username);
+
 	Optional<UserDTO> getUserById(int id);
 
 	Optional<UserDTO> updateUser(WebUserDTO user);
 
 	List<UserDTO> getAllUsers();
 
+	AdminUserPageDTO getAdminUserSummaryPage(String usernamePrefix, String cursor);
+
 	boolean deleteUser(int id);
 
 	Optional<UserDTO> getUserDTOByUsername(String username);
 
-	Optional<UserDTO> updatePassword(WebUserDTO webUserDTO);
+	CompletableFuture<Optional<UserDTO>> updatePassword(WebUserDTO webUserDTO);
+
+	Map<String, String> resetPasswords(List<String> usernames);
 
 
 }
@@ -1,5 +1,9 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.config.BoundedPasswordEncoder;
+import com.example.taskmanager.config.PasswordHashingRejectedException;
+import com.example.taskmanager.dto.AdminUserPageDTO;
+import com.example.taskmanager.dto.AdminUserSummaryDTO;
 import com.example.taskmanager.dto.UserDTO;
 import com.example.taskmanager.dto.WebUserDTO;
 import com.example.taskmanager.entity.Role;
@@ -11,16 +15,25 @@ import com.example.taskmanager.validation.OnUpdate;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Service implementation for handling user-related operations.
@@ -28,10 +41,25 @@ import java.util.Set;
 @Service
 public class UserServiceImpl implements UserService {
 
+	/**
+	 * Number of users shown on one page of the admin user listing.
+	 */
+	private static final int ADMIN_PAGE_SIZE = 25;
+
+	/**
+	 * Number of random bytes in a temporary password created by a password reset.
+	 */
+	private static final int TEMPORARY_PASSWORD_BYTES = 12;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
 	private final UserRepository userRepository;
-	private final PasswordEncoder passwordEncoder;
+	private final BoundedPasswordEncoder passwordEncoder;
 	private final RoleService roleService;
 	private final UserMapper userMapper;
+	private final CustomUserDetailsService userDetailsService;
+	private final TransactionTemplate transactionTemplate;
+	private final Executor taskExecutor;
 
 	/**
 	 * Constructs a new instance of UserServiceImpl.
@@ -40,14 +68,22 @@ public class UserServiceImpl implements UserService {
 	 * @param passwordEncoder the encoder for handling user passwords
 	 * @param roleService service for managing roles
 	 * @param userMapper the mapper for converting between User and UserDTO entities
+	 * @param userDetailsService the service whose cached login details are evicted when a user changes
+	 * @param transactionTemplate the template used to save passwords once they are hashed
+	 * @param taskExecutor the executor that saves passwords once they are hashed
 	 */
 	@Autowired
-	public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
-						   RoleService roleService, UserMapper userMapper) {
+	public UserServiceImpl(UserRepository userRepository, BoundedPasswordEncoder passwordEncoder,
+						   RoleService roleService, UserMapper userMapper,
+						   CustomUserDetailsService userDetailsService, TransactionTemplate transactionTemplate,
+						   @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
 		this.userRepository = userRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.roleService = roleService;
 		this.userMapper = userMapper;
+		this.userDetailsService = userDetailsService;
+		this.transactionTemplate = transactionTemplate;
+		this.taskExecutor = taskExecutor;
 	}
 
 
@@ -89,6 +125,7 @@ public class UserServiceImpl implements UserService {
 	 * @return an Optional containing the UserDTO if found, or an empty Optional if not found
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<UserDTO> getUserDTOByUsername(String username) {
 		User user =userRepository.findByUsername(username);
 				if (user != null) {
@@ -100,16 +137,29 @@ public class UserServiceImpl implements UserService {
 	}
 
 	/**
-	 * Retrieves a User object by its username.
+	 * Retrieves a User object by its username. The user's roles are not loaded.
 	 *
 	 * @param username the username to search for
 	 * @return the User object associated with the given username
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public User getUserByUsername(String username) {
 		return userRepository.findByUsername(username);
 	}
 
+	/**
+	 * Retrieves a User object by its username, with its roles already loaded.
+	 *
+	 * @param username the username to search for
+	 * @return the User object associated with the given username, or null if not found
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public User getUserWithRolesByUsername(String username) {
+		return userRepository.findWithRolesByUsername(username);
+	}
+
 	/**
 	 * Retrieves a user by their unique identifier.
 	 *
@@ -117,6 +167,7 @@ public class UserServiceImpl implements UserService {
 	 * @return an optional containing the UserDTO if found, or an empty optional if not found
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<UserDTO> getUserById(int id) {
 		return userRepository.findById(id)
 				.map(userMapper::toDTO);
@@ -132,10 +183,11 @@ public class UserServiceImpl implements UserService {
 	@Override
 	@Transactional
 	public Optional<UserDTO> updateUser(WebUserDTO webUserDTO) {
-	User user = userRepository.findByUsername(webUserDTO.getUsername());
+	User user = userRepository.findWithRolesByUsername(webUserDTO.getUsername());
 	if (user == null) {
 		throw new RuntimeException("User not found.");
 	}
+	userDetailsService.evictUser(user.getUsername());
 	updateFields(user, webUserDTO);
 
 	userRepository.save(user);
@@ -191,10 +243,81 @@ public class UserServiceImpl implements UserService {
 	 * @return a list of UserDTO objects representing all users in the system.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<UserDTO> getAllUsers() {
 		return userMapper.toDTO(userRepository.findAll());
 	}
 
+	/**
+	 * Retrieves one page of the admin user listing, optionally limited to usernames starting with a prefix.
+	 *
+	 * A page costs two queries however many users and tasks there are: one query that returns the users
+	 * on the page joined with their stored pending, completed and overdue task counts, and one query for
+	 * the role names of those users.
+	 *
+	 * @param usernamePrefix the prefix the usernames must start with, or null or blank to list all users
+	 * @param cursor the username of the last user on the previous page, or null for the first page
+	 * @return the requested page of user summaries together with the cursor of the next page
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public AdminUserPageDTO getAdminUserSummaryPage(String usernamePrefix, String cursor) {
+		String pattern = usernamePrefix == null ? "%" : escapeLikePattern(usernamePrefix.trim()) + "%";
+		String afterUsername = cursor == null ? "" : cursor;
+
+		List<AdminUserSummaryDTO> users = new ArrayList<>(userRepository.findAdminUserSummaries(pattern,
+				afterUsername, PageRequest.of(0, ADMIN_PAGE_SIZE + 1)));
+
+		String nextCursor = null;
+		if (users.size() > ADMIN_PAGE_SIZE) {
+			users = users.subList(0, ADMIN_PAGE_SIZE);
+			nextCursor = users.get(users.size() - 1).getUsername();
+		}
+
+		addRoleNames(users);
+
+		return AdminUserPageDTO.builder()
+				.users(users)
+				.nextCursor(nextCursor)
+				.build();
+	}
+
+	/**
+	 * Fills in the role names of the given user summaries with a single query.
+	 *
+	 * @param users the user summaries to complete
+	 */
+	private void addRoleNames(List<AdminUserSummaryDTO> users) {
+		if (users.isEmpty()) {
+			return;
+		}
+
+		Map<Integer, List<String>> roleNames = new HashMap<>();
+		for (AdminUserSummaryDTO user : users) {
+			roleNames.put(user.getId(), new ArrayList<>());
+		}
+
+		for (Object[] row : userRepository.findRoleNamesByUserIds(roleNames.keySet())) {
+			roleNames.get((Integer) row[0]).add((String) row[1]);
+		}
+
+		for (AdminUserSummaryDTO user : users) {
+			user.setRoleNames(roleNames.get(user.getId()));
+		}
+	}
+
+	/**
+	 * Escapes the LIKE wildcards in user input so it only ever matches literally.
+	 *
+	 * @param value the text to escape
+	 * @return the text with %, _ and the ! escape character escaped with !
+	 */
+	private String escapeLikePattern(String value) {
+		return value.replace("!", "!!")
+				.replace("%", "!%")
+				.replace("_", "!_");
+	}
+
 	/**
 	 * Deletes a user by their ID.
 	 *
@@ -204,10 +327,12 @@ public class UserServiceImpl implements UserService {
 	@Override
 	@Transactional
 	public boolean deleteUser(int id) {
-		if (!userRepository.existsById(id)) {
+		Optional<User> user = userRepository.findById(id);
+		if (user.isEmpty()) {
 			return false;
 		}
-		userRepository.deleteById(id);
+		userDetailsService.evictUser(user.get().getUsername());
+		userRepository.delete(user.get());
 		return true;
 	}
 
@@ -215,32 +340,112 @@ public class UserServiceImpl implements UserService {
 	/**
 	 * Updates the password of a user based on the provided WebUserDTO.
 	 *
+	 * Checking that the new password differs from the current one and hashing it are both BCrypt
+	 * operations, so they run back to back as one job on the shared password hashing pool, and the
+	 * calling thread is not blocked while they run. The new hash is then saved in its own transaction.
+	 *
 	 * @param webUserDTO Data Transfer Object containing the username and new password information.
-	 * @return An Optional containing the updated UserDTO if the user is successfully updated;
-	 *         otherwise, throws an EntityNotFoundException if the user is not found.
+	 * @return A future completed with an Optional containing the updated UserDTO; it completes
+	 *         exceptionally with an EntityNotFoundException if the user is not found, or with an
+	 *         IllegalArgumentException if the new password is the same as the current one.
+	 * @throws PasswordHashingRejectedException if the password hashing pool is full
 	 */
 	@Override
-	@Transactional
-	public Optional<UserDTO> updatePassword(WebUserDTO webUserDTO) {
+	public CompletableFuture<Optional<UserDTO>> updatePassword(WebUserDTO webUserDTO) {
 
 		User user = userRepository.findByUsername(webUserDTO.getUsername());
 
 		if (user == null) {
-			throw new EntityNotFoundException("Username not found.");
+			return CompletableFuture.failedFuture(new EntityNotFoundException("Username not found."));
 		}
 
-		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+		String currentPassword = user.getPassword();
+
+		return passwordEncoder.supplyAsync(encoder -> {
+					if (encoder.matches(webUserDTO.getPassword(), currentPassword)) {
+						throw new IllegalArgumentException("New password can not be the same as current password.");
+					}
+					return encoder.encode(webUserDTO.getPassword());
+				})
+				// Save on the task executor so the hashing threads only ever hash
+				.thenApplyAsync(encodedPassword -> transactionTemplate.execute(status ->
+						savePassword(webUserDTO.getUsername(), encodedPassword)), taskExecutor);
+	}
 
-		if (encoder.matches(webUserDTO.getPassword(), user.getPassword())) {
-			throw new IllegalArgumentException("New password can not be the same as current password.");
+	/**
+	 * Resets the passwords of the given users to newly generated temporary passwords.
+	 *
+	 * The passwords are hashed in parallel on the shared password hashing pool before the transaction
+	 * starts, and the users are then updated together, so no database connection is held while hashing.
+	 *
+	 * @param usernames the usernames of the users whose passwords are reset
+	 * @return the temporary password of each user that was reset, keyed by username, in the order given;
+	 *         usernames that do not belong to a user are left out
+	 */
+	@Override
+	public Map<String, String> resetPasswords(List<String> usernames) {
+		List<String> distinctUsernames = usernames.stream().distinct().toList();
+		List<String> temporaryPasswords = distinctUsernames.stream()
+				.map(username -> generateTemporaryPassword())
+				.toList();
+
+		List<String> encodedPasswords = passwordEncoder.encodeAll(temporaryPasswords);
+
+		Set<String> resetUsernames = transactionTemplate.execute(status -> {
+			Map<String, String> encodedPasswordsByUsername = new HashMap<>();
+			for (int i = 0; i < distinctUsernames.size(); i++) {
+				encodedPasswordsByUsername.put(distinctUsernames.get(i), encodedPasswords.get(i));
+			}
+
+			Set<String> found = new HashSet<>();
+			for (User user : userRepository.findAllByUsernameIn(distinctUsernames)) {
+				user.setPassword(encodedPasswordsByUsername.get(user.getUsername()));
+				userDetailsService.evictUser(user.getUsername());
+				found.add(user.getUsername());
+			}
+			return found;
+		});
+
+		Map<String, String> result = new LinkedHashMap<>();
+		for (int i = 0; i < distinctUsernames.size(); i++) {
+			if (resetUsernames.contains(distinctUsernames.get(i))) {
+				result.put(distinctUsernames.get(i), temporaryPasswords.get(i));
+			}
 		}
+		return result;
+	}
 
+	/**
+	 * Stores a new password hash for a user. Must be called inside a transaction.
+	 *
+	 * @param username the username of the user
+	 * @param encodedPassword the new password hash
+	 * @return an Optional containing the updated UserDTO
+	 * @throws EntityNotFoundException if the user was deleted while the password was being hashed
+	 */
+	private Optional<UserDTO> savePassword(String username, String encodedPassword) {
+		User user = userRepository.findByUsername(username);
 
-		user.setPassword(passwordEncoder.encode(webUserDTO.getPassword()));
+		if (user == null) {
+			throw new EntityNotFoundException("Username not found.");
+		}
+
+		user.setPassword(encodedPassword);
+		userDetailsService.evictUser(user.getUsername());
 
 		userRepository.save(user);
 
-		UserDTO userDTO = userMapper.toDTO(user);
-		return Optional.of(userDTO);
+		return Optional.of(userMapper.toDTO(user));
+	}
+
+	/**
+	 * Generates a random temporary password.
+	 *
+	 * @return a URL-safe password of {@link #TEMPORARY_PASSWORD_BYTES} random bytes
+	 */
+	private String generateTemporaryPassword() {
+		byte[] bytes = new byte[TEMPORARY_PASSWORD_BYTES];
+		secureRandom.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
 	}
 }
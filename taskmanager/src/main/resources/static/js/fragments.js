@@ -0,0 +1,49 @@
+// Submits forms marked with data-fragment in the background, with the HX-Request header htmx sends, so
+// the server answers with fragments instead of a redirect to a freshly rendered page. Each element of
+// the answer with an id replaces the element with the same id; a <template data-swap="id"> replaces
+// that element with the template's content, or removes it when the template is empty.
+document.addEventListener('submit', async function (event) {
+    const form = event.target;
+    // Forms whose own validation cancelled the submission are left alone
+    if (event.defaultPrevented || !form.hasAttribute('data-fragment')) {
+        return;
+    }
+    event.preventDefault();
+
+    const response = await fetch(form.action, {
+        method: 'POST',
+        headers: { 'HX-Request': 'true' },
+        body: new URLSearchParams(new FormData(form, event.submitter))
+    });
+    if (response.redirected) {
+        // The session has ended; show the page the server sent the browser to
+        window.location.assign(response.url);
+        return;
+    }
+    const text = await response.text();
+    if (!response.ok) {
+        // Show the server's error page in place of this one; the form has already been handled, so
+        // sending it again could repeat its change
+        document.open();
+        document.write(text);
+        document.close();
+        return;
+    }
+
+    const answer = new DOMParser().parseFromString(text, 'text/html');
+    for (const element of Array.from(answer.body.children)) {
+        const swap = element.tagName === 'TEMPLATE' ? element.dataset.swap : null;
+        const target = document.getElementById(swap || element.id);
+        if (!target) {
+            continue;
+        }
+        if (swap) {
+            target.replaceWith(document.importNode(element.content, true));
+        } else {
+            target.replaceWith(document.importNode(element, true));
+        }
+    }
+    if (document.body.contains(form)) {
+        form.reset();
+    }
+});
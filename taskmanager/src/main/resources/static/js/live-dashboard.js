@@ -0,0 +1,36 @@
+// Keeps the dashboard current without reloading it: the server sends a tasks-changed event carrying the
+// ETag of the user's tasks, and when it differs from the one the page was rendered with, the page is
+// fetched again and its main content swapped in place.
+(function () {
+    const main = document.querySelector('main[data-task-etag]');
+    if (!main || !window.EventSource) {
+        return;
+    }
+
+    let taskETag = main.dataset.taskEtag;
+    let refreshing = false;
+    const source = new EventSource(main.dataset.eventsUrl);
+
+    source.addEventListener('tasks-changed', async function (event) {
+        if (event.data === taskETag || refreshing) {
+            return;
+        }
+        refreshing = true;
+        try {
+            const response = await fetch(window.location.href, { headers: { 'Accept': 'text/html' } });
+            if (response.redirected || !response.ok) {
+                // The session has ended or the page is gone; leave it to the next navigation
+                source.close();
+                return;
+            }
+            const page = new DOMParser().parseFromString(await response.text(), 'text/html');
+            const freshMain = page.querySelector('main[data-task-etag]');
+            if (freshMain) {
+                main.innerHTML = freshMain.innerHTML;
+                taskETag = freshMain.dataset.taskEtag;
+            }
+        } finally {
+            refreshing = false;
+        }
+    });
+})();
@@ -0,0 +1,122 @@
+package com.example.taskmanager;
+
+import com.example.taskmanager.entity.Role;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.RoleRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.TaskTombstoneRepository;
+import com.example.taskmanager.repository.UserRepository;
+import com.example.taskmanager.repository.UserTaskStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Saves the users, and the roles they hold, that tests run against, and clears everything the tests
+ * wrote once they are done.
+ */
+@Component
+public class TestUsers {
+
+	/**
+	 * Stored in place of a password hash for users that never log in; no password matches it.
+	 */
+	private static final String UNUSABLE_PASSWORD_HASH = "not-a-real-hash";
+
+	private final UserRepository userRepository;
+	private final RoleRepository roleRepository;
+	private final TaskRepository taskRepository;
+	private final TaskTombstoneRepository taskTombstoneRepository;
+	private final UserTaskStatsRepository userTaskStatsRepository;
+	private final PasswordEncoder passwordEncoder;
+
+	/**
+	 * Constructs TestUsers.
+	 *
+	 * @param userRepository the repository users are saved to
+	 * @param roleRepository the repository roles are saved to
+	 * @param taskRepository the repository the users' tasks are cleared from
+	 * @param taskTombstoneRepository the repository the users' task tombstones are cleared from
+	 * @param userTaskStatsRepository the repository the users' task counts are cleared from
+	 * @param passwordEncoder the encoder that hashes the password of users who log in
+	 */
+	@Autowired
+	public TestUsers(UserRepository userRepository, RoleRepository roleRepository, TaskRepository taskRepository,
+					 TaskTombstoneRepository taskTombstoneRepository, UserTaskStatsRepository userTaskStatsRepository,
+					 PasswordEncoder passwordEncoder) {
+		this.userRepository = userRepository;
+		this.roleRepository = roleRepository;
+		this.taskRepository = taskRepository;
+		this.taskTombstoneRepository = taskTombstoneRepository;
+		this.userTaskStatsRepository = userTaskStatsRepository;
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	/**
+	 * Saves a role.
+	 *
+	 * @param name the name of the role, such as ROLE_USER
+	 * @return the saved role
+	 */
+	public Role createRole(String name) {
+		return roleRepository.save(Role.builder().name(name).build());
+	}
+
+	/**
+	 * Saves an enabled user who cannot log in, for tests that act on the user's behalf directly.
+	 *
+	 * @param username the username, from which the email address is made up
+	 * @param roles the roles the user holds
+	 * @return the saved user
+	 */
+	public User create(String username, Role... roles) {
+		return save(username, UNUSABLE_PASSWORD_HASH, roles);
+	}
+
+	/**
+	 * Saves an enabled user who logs in with the given password.
+	 *
+	 * @param username the username, from which the email address is made up
+	 * @param password the raw password, stored hashed by the application's encoder
+	 * @param roles the roles the user holds
+	 * @return the saved user
+	 */
+	public User createWithPassword(String username, String password, Role... roles) {
+		return save(username, passwordEncoder.encode(password), roles);
+	}
+
+	/**
+	 * Deletes every task, task tombstone, task count, user and role, in an order the foreign keys
+	 * between them allow.
+	 */
+	public void deleteAll() {
+		taskTombstoneRepository.deleteAll();
+		taskRepository.deleteAll();
+		userRepository.deleteAll();
+		userTaskStatsRepository.deleteAll();
+		roleRepository.deleteAll();
+	}
+
+	/**
+	 * Saves an enabled user with the given password hash.
+	 *
+	 * @param username the username, from which the email address is made up
+	 * @param passwordHash the stored password hash
+	 * @param roles the roles the user holds
+	 * @return the saved user
+	 */
+	private User save(String username, String passwordHash, Role... roles) {
+		return userRepository.save(User.builder()
+				.username(username)
+				.firstName("Test")
+				.lastName("User")
+				.email(username + "@example.com")
+				.password(passwordHash)
+				.enabled(true)
+				.roles(new HashSet<>(Set.of(roles)))
+				.build());
+	}
+}
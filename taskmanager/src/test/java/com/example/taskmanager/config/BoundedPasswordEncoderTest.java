@@ -0,0 +1,104 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the hashing pool runs hashes off the calling thread, queues a bounded number of them
+ * and rejects the rest.
+ */
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		encoder.destroy();
+	}
+
+	@Test
+	void hashesBeyondTheQueueAreRejected() throws Exception {
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+		awaitQueued(0);
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+		awaitQueued(1);
+
+		assertThrows(PasswordHashingRejectedException.class, () -> encoder.matches("rejected", "hash"));
+		assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+		release.countDown();
+		assertTrue(running.get(5, TimeUnit.SECONDS).startsWith("password-hashing-"));
+		assertTrue(queued.get(5, TimeUnit.SECONDS).startsWith("password-hashing-"));
+		assertEquals(2, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+	}
+
+	@Test
+	void bulkHashesAreQueuedInBatchesThatFitTheQueue() throws Exception {
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+		awaitQueued(0);
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+		awaitQueued(1);
+
+		assertThrows(PasswordHashingRejectedException.class, () -> encoder.encodeAll(List.of("rejected")));
+
+		release.countDown();
+		running.get(5, TimeUnit.SECONDS);
+		queued.get(5, TimeUnit.SECONDS);
+
+		// Three passwords do not fit a queue of one at once, but do one batch at a time
+		List<String> hashes = encoder.encodeAll(List.of("one", "two", "three"));
+		assertEquals(3, hashes.size());
+		assertTrue(hashes.stream().allMatch(hash -> hash.startsWith("password-hashing-")));
+	}
+
+	/**
+	 * Waits until the pool is busy and the given number of hashes are queued.
+	 */
+	private void awaitQueued(double expected) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			if (meterRegistry.get("executor.active").gauge().value() == 1
+					&& meterRegistry.get("executor.queued").gauge().value() == expected) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Hashing pool did not reach the expected state");
+	}
+
+	/**
+	 * An encoder that blocks until released and returns the name of the thread it ran on.
+	 */
+	private class BlockingEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Thread.currentThread().getName();
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the calibrated work factor and which stored hashes are re-hashed.
+ */
+class CalibratedBCryptPasswordEncoderTest {
+
+	private static final String SALT_AND_HASH = "abcdefghijklmnopqrstuuxYzkeBYl6Q6GbcWfrB/Hf6PqpKTaIU6";
+
+	@Test
+	void onlyHashesWithALowerWorkFactorAreRehashed() {
+		CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(11);
+
+		assertTrue(encoder.upgradeEncoding("$2a$10$" + SALT_AND_HASH));
+		assertFalse(encoder.upgradeEncoding("$2a$12$" + SALT_AND_HASH));
+		assertFalse(encoder.upgradeEncoding("$2a$11$" + SALT_AND_HASH));
+		assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+		assertFalse(encoder.upgradeEncoding(null));
+	}
+
+	@Test
+	void calibrationNeverGoesBelowTheMinimumWorkFactor() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrate(1, meterRegistry);
+
+		assertEquals(CalibratedBCryptPasswordEncoder.MIN_STRENGTH, encoder.getStrength());
+		assertEquals(CalibratedBCryptPasswordEncoder.MIN_STRENGTH,
+				meterRegistry.get("password.hashing.bcrypt.strength").gauge().value());
+		assertTrue(encoder.matches("password", encoder.encode("password")));
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.taskmanager.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that only as many threads are handed a connection at once as there are permits, that a
+ * thread holding a permit is not made to wait for another, and that closing a connection returns its
+ * permit exactly once.
+ */
+class ConnectionLimitingDataSourceTest {
+
+	private final DataSource pool = mock(DataSource.class);
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+	}
+
+	@Test
+	void callersTimeOutWhileEveryPermitIsHeld() throws Exception {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, 50);
+
+		Connection connection = dataSource.getConnection();
+		assertThrows(SQLTransientConnectionException.class, () -> onAnotherThread(dataSource));
+
+		// Closing twice must not hand out a second permit
+		connection.close();
+		connection.close();
+		onAnotherThread(dataSource);
+		assertThrows(SQLTransientConnectionException.class, () -> onAnotherThread(dataSource));
+	}
+
+	@Test
+	void threadsHoldingAPermitGetFurtherConnectionsWithoutOne() throws Exception {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, 50);
+
+		Connection connection = dataSource.getConnection();
+		dataSource.getConnection().close();
+		assertThrows(SQLTransientConnectionException.class, () -> onAnotherThread(dataSource));
+
+		connection.close();
+		assertNotNull(onAnotherThread(dataSource));
+	}
+
+	@Test
+	void waitingCallersGetTheConnectionOnceItIsClosed() throws Exception {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, 5_000);
+
+		Connection connection = dataSource.getConnection();
+		CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return dataSource.getConnection();
+			}
+			catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		while (dataSource.getWaitingThreads() == 0) {
+			Thread.sleep(5);
+		}
+		assertFalse(waiting.isDone());
+
+		connection.close();
+		assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Obtains a connection on a new thread, which holds no permit, and keeps it open.
+	 */
+	private Connection onAnotherThread(ConnectionLimitingDataSource dataSource) throws Exception {
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return dataSource.getConnection();
+				}
+				catch (SQLException e) {
+					throw new CompletionException(e);
+				}
+			}, runnable -> new Thread(runnable).start()).join();
+		}
+		catch (CompletionException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.taskmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that only successful password checks are remembered, and only for the hash they were made
+ * against.
+ */
+class VerifiedPasswordCacheTest {
+
+	private final CountingEncoder delegate = new CountingEncoder();
+
+	private final VerifiedPasswordCache encoder = new VerifiedPasswordCache(delegate, Duration.ofMinutes(1));
+
+	@Test
+	void successfulChecksAreRememberedPerHash() {
+		assertTrue(encoder.matches("secret", "hash-of-secret"));
+		assertTrue(encoder.matches("secret", "hash-of-secret"));
+		assertEquals(1, delegate.checks.get());
+
+		// A wrong password is checked in full every time
+		assertFalse(encoder.matches("guess", "hash-of-secret"));
+		assertFalse(encoder.matches("guess", "hash-of-secret"));
+		assertEquals(3, delegate.checks.get());
+
+		// A changed password has a new hash, so the old check no longer counts
+		assertFalse(encoder.matches("secret", "hash-of-changed"));
+		assertEquals(4, delegate.checks.get());
+	}
+
+	/**
+	 * An encoder whose hash is the password prefixed with "hash-of-", counting its checks.
+	 */
+	private static class CountingEncoder implements PasswordEncoder {
+
+		private final AtomicInteger checks = new AtomicInteger();
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			return "hash-of-" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			checks.incrementAndGet();
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Verifies that the connection limiter put in front of the pool on virtual threads does not deadlock
+ * when every permit is held and the task ID generator needs a connection of its own.
+ */
+@SpringBootTest(properties = {
+		"spring.threads.virtual.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:task_manager_limited;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"spring.datasource.hikari.connection-timeout=2000"
+})
+class VirtualThreadConfigTest {
+
+	private static final int THREADS = 12;
+	private static final int TASKS_PER_THREAD = 25;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void taskCreationMakesProgressWithEveryPermitHeld() throws Exception {
+		assertInstanceOf(ConnectionLimitingDataSource.class, dataSource);
+
+		// A pool of two connections leaves one permit, so far more threads than permits keep it held while
+		// the ID generator, which allocates a new block of IDs every 50 tasks, opens a connection of its own
+		List<Callable<Integer>> creators = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			User user = testUsers.create("limitedUser" + thread);
+			creators.add(() -> {
+				for (int i = 0; i < TASKS_PER_THREAD; i++) {
+					taskService.createTask(WebTaskDTO.builder()
+							.taskName("Task " + i)
+							.startDate(LocalDate.now())
+							.build(), user.getId());
+				}
+				return TASKS_PER_THREAD;
+			});
+		}
+
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		try {
+			int created = 0;
+			for (Future<Integer> result : executor.invokeAll(creators, 60, TimeUnit.SECONDS)) {
+				created += result.get();
+			}
+			assertEquals(THREADS * TASKS_PER_THREAD, created);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(THREADS * TASKS_PER_THREAD, taskRepository.count());
+	}
+}
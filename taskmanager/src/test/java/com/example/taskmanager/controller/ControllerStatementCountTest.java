@@ -0,0 +1,286 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskStatsDTO;
+import com.example.taskmanager.entity.Role;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.RoleRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.UserRepository;
+import com.example.taskmanager.service.TaskManagerUserDetails;
+import com.example.taskmanager.service.TaskStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each controller endpoint issues, so that a change to a fetch plan
+ * that reintroduces N+1 loading, or loads roles where they are not needed, fails the build. Users are
+ * looked up once before each test, so the counts are those of a warm second-level cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControllerStatementCountTest {
+
+	private static final String USERNAME = "countUser";
+	private static final String ADMIN_USERNAME = "countAdmin";
+	private static final String PASSWORD = "password";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TaskStatsService taskStatsService;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private List<Integer> taskIds;
+
+	private int userId;
+
+	private int adminId;
+
+	@BeforeEach
+	void setUp() {
+		taskIds = transactionTemplate.execute(status -> {
+			User user = testUsers.createWithPassword(USERNAME, PASSWORD, testUsers.createRole("ROLE_USER"));
+			userId = user.getId();
+			adminId = testUsers.createWithPassword(ADMIN_USERNAME, PASSWORD, testUsers.createRole("ROLE_ADMIN")).getId();
+
+			List<Task> tasks = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				tasks.add(Task.builder()
+						.taskName("Task " + i)
+						.startDate(LocalDate.now())
+						.dueDate(LocalDate.now().plusDays(i + 1))
+						.taskStatus(i % 2 == 0)
+						.user(user)
+						.build());
+			}
+
+			List<Integer> ids = new ArrayList<>();
+			taskRepository.saveAll(tasks).forEach(task -> ids.add(task.getId()));
+			return ids;
+		});
+
+		// The tasks were saved directly, so count them as the startup recount would
+		taskStatsService.reconcile();
+
+		// Resolve both usernames once so the second-level cache holds them, as it would after a login
+		userRepository.findByUsername(USERNAME);
+		userRepository.findByUsername(ADMIN_USERNAME);
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void loginFetchesUserAndRolesTogether() throws Exception {
+		assertStatements(1, formLogin("/authenticateUser").user(USERNAME).password(PASSWORD),
+				redirectedUrl("/dashboard"));
+	}
+
+	@Test
+	void taskPagesLoadOnePageWithoutLookingUpTheUser() throws Exception {
+		// The principal carries the user's ID, so the pages cost one query even with a cold cache; the
+		// dashboard adds one primary-key lookup of the user's task counts
+		entityManagerFactory.getCache().evictAll();
+
+		assertStatements(2, get("/dashboard").with(asUser()), model().attribute("taskStats", new TaskStatsDTO(20, 20, 0)));
+		assertStatements(1, get("/delete-tasks").with(asUser()), status().isOk());
+		assertStatements(1, get("/update-task-status").with(asUser()), status().isOk());
+	}
+
+	@Test
+	void statusFiltersLoadOnlyTheTasksTheyShow() throws Exception {
+		assertStatements(2, get("/dashboard").with(asUser()), model().attribute("tasks", hasSize(20)));
+		assertStatements(2, get("/dashboard").param("status", "COMPLETED").with(asUser()),
+				model().attribute("tasks", hasSize(20)));
+		assertStatements(1, get("/delete-tasks").param("status", "OVERDUE").with(asUser()),
+				model().attribute("tasks", hasSize(0)));
+		assertStatements(1, get("/update-task-status").with(asUser()), model().attribute("tasks", hasSize(25)));
+	}
+
+	@Test
+	void repeatedDashboardIsServedFromItsSnapshotUntilTheTasksChange() throws Exception {
+		assertStatements(2, get("/dashboard").with(asUser()), model().attribute("tasks", hasSize(20)));
+		// Shown again, the page is decoded from its off-heap snapshot
+		assertStatements(0, get("/dashboard").with(asUser()), ResultMatcher.matchAll(model().attribute("tasks", hasSize(20)),
+				model().attribute("taskStats", new TaskStatsDTO(20, 20, 0))));
+
+		mockMvc.perform(patch("/task/update-status")
+						.param("selectedItems", String.valueOf(taskIds.get(1)))
+						.param("taskStatus", "true")
+						.with(asUser()).with(csrf()))
+				.andExpect(redirectedUrl("/dashboard"));
+
+		// The change made the snapshot stale, so the page is read again
+		assertStatements(2, get("/dashboard").with(asUser()), model().attribute("tasks", hasSize(19)));
+	}
+
+	@Test
+	void unchangedDashboardIsNotModifiedWithoutQuerying() throws Exception {
+		MockHttpSession session = new MockHttpSession();
+		String eTag = mockMvc.perform(get("/dashboard").session(session).with(asUser()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertStatements(0, get("/dashboard").session(session).header(HttpHeaders.IF_NONE_MATCH, eTag).with(asUser()),
+				status().isNotModified());
+
+		mockMvc.perform(patch("/task/update-status")
+						.param("selectedItems", String.valueOf(taskIds.get(0)))
+						.param("taskStatus", "true")
+						.session(session).with(asUser()).with(csrf()))
+				.andExpect(redirectedUrl("/dashboard"));
+
+		String changedETag = mockMvc.perform(get("/dashboard").session(session).header(HttpHeaders.IF_NONE_MATCH, eTag)
+						.with(asUser()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(eTag, changedETag);
+	}
+
+	@Test
+	void formPagesDoNotQueryWithTheUserCached() throws Exception {
+		assertStatements(0, get("/create-task").with(asUser()), status().isOk());
+		assertStatements(0, get("/import-tasks").with(asUser()), status().isOk());
+		assertStatements(0, get("/update-password").with(asUser()), status().isOk());
+		assertStatements(0, get("/update-user-info").with(asUser()), status().isOk());
+	}
+
+	@Test
+	void bulkTaskActionsUseAFixedNumberOfStatements() throws Exception {
+		// Each action draws a change sequence number, locks the user's task counts, reads which selected
+		// tasks are the user's, counts them by status and due date, changes them and adjusts the user's
+		// task counts by what it counted
+		assertStatements(7, patch("/task/update-status")
+						.param("selectedItems", taskIds.stream().map(String::valueOf).toArray(String[]::new))
+						.param("taskStatus", "true")
+						.with(asUser()).with(csrf()),
+				redirectedUrl("/dashboard"));
+
+		// One INSERT ... SELECT records the tombstones, then one DELETE removes the tasks
+		assertStatements(8, delete("/task/delete-tasks")
+						.param("selectedItems", taskIds.stream().map(String::valueOf).toArray(String[]::new))
+						.with(asUser()).with(csrf()),
+				redirectedUrl("/dashboard"));
+	}
+
+	@Test
+	void adminPagesCostAFixedNumberOfStatements() throws Exception {
+		assertStatements(2, get("/admin/dashboard").with(asAdmin()), status().isOk());
+		assertStatements(2, get("/admin/update-user-info/" + USERNAME).with(asAdmin()), status().isOk());
+
+		// The user's tasks are joined on the username, so they cost one query even with a cold cache,
+		// and are streamed into the page from that query's open result
+		entityManagerFactory.getCache().evictAll();
+		assertStatements(1, get("/admin/user-tasks/" + USERNAME).with(asAdmin()),
+				content().string(allOf(containsString("id=\"task-" + taskIds.get(0) + "\""),
+						containsString("id=\"task-" + taskIds.get(taskIds.size() - 1) + "\""), not(containsString("No Tasks To Display!")))));
+	}
+
+	@Test
+	void adminRoleChangeIsSaved() throws Exception {
+		int adminRoleId = roleRepository.findByName("ROLE_ADMIN").orElseThrow().getId();
+
+		mockMvc.perform(patch("/admin/update-user-info")
+						.param("username", USERNAME)
+						.param("firstName", "Count")
+						.param("lastName", "Tester")
+						.param("email", USERNAME + "@example.com")
+						.param("roles", String.valueOf(adminRoleId))
+						.with(asAdmin()).with(csrf()))
+				.andExpect(redirectedUrl("/admin/dashboard"))
+				.andExpect(flash().attribute("successMessage", "User successfully updated."));
+
+		assertEquals(Set.of("ROLE_ADMIN"), transactionTemplate.execute(status ->
+				userRepository.findWithRolesByUsername(USERNAME).getRoles().stream()
+						.map(Role::getName).collect(Collectors.toSet())));
+	}
+
+	/**
+	 * Authenticates a request as the regular user, with the principal a login would produce.
+	 */
+	private RequestPostProcessor asUser() {
+		return user(new TaskManagerUserDetails(userId, USERNAME, "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+	}
+
+	/**
+	 * Authenticates a request as the admin, with the principal a login would produce.
+	 */
+	private RequestPostProcessor asAdmin() {
+		return user(new TaskManagerUserDetails(adminId, ADMIN_USERNAME, "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+	}
+
+	/**
+	 * Performs a request and asserts how many JDBC statements it prepared.
+	 */
+	private void assertStatements(long expected, RequestBuilder request, ResultMatcher result) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		mockMvc.perform(request).andExpect(result);
+
+		assertEquals(expected, statistics.getPrepareStatementCount(), "statements prepared");
+	}
+}
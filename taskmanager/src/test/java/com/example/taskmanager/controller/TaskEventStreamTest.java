@@ -0,0 +1,106 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.service.TaskEventBroadcaster;
+import com.example.taskmanager.service.TaskManagerUserDetails;
+import com.example.taskmanager.service.TaskVersionTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Verifies that a task created by an administrator reaches the user's open dashboard as a
+ * Server-Sent Event.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskEventStreamTest {
+
+	private static final String USERNAME = "streamUser";
+	private static final String ADMIN_USERNAME = "streamAdmin";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TaskVersionTracker taskVersionTracker;
+
+	@Autowired
+	private TaskEventBroadcaster taskEventBroadcaster;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private int userId;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			userId = testUsers.create(USERNAME, testUsers.createRole("ROLE_USER")).getId();
+			testUsers.create(ADMIN_USERNAME, testUsers.createRole("ROLE_ADMIN"));
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void adminCreatedTaskIsPushedToTheUsersStream() throws Exception {
+		String initialETag = taskVersionTracker.getETag(userId);
+
+		MockHttpServletResponse stream = mockMvc.perform(get("/task/events")
+						.with(user(new TaskManagerUserDetails(userId, USERNAME, "", List.of(new SimpleGrantedAuthority("ROLE_USER"))))))
+				.andExpect(request().asyncStarted())
+				.andReturn().getResponse();
+
+		// The current ETag is sent as soon as the stream opens
+		awaitContent(stream, initialETag);
+		assertEquals(1, taskEventBroadcaster.getConnectionCount());
+
+		mockMvc.perform(post("/admin/create-user-task/" + USERNAME)
+						.param("taskName", "Pushed task")
+						.param("startDate", LocalDate.now().toString())
+						.with(user(ADMIN_USERNAME).roles("ADMIN")).with(csrf()))
+				.andExpect(redirectedUrl("/admin/dashboard"));
+
+		String changedETag = taskVersionTracker.getETag(userId);
+		assertNotEquals(initialETag, changedETag, "the admin's task must change the user's ETag");
+		awaitContent(stream, "data:" + changedETag);
+	}
+
+	/**
+	 * Waits for the stream's virtual-thread writer to have written the given text.
+	 */
+	private void awaitContent(MockHttpServletResponse stream, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!stream.getContentAsString().contains(expected)) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for " + expected + " in " + stream.getContentAsString());
+			Thread.sleep(10);
+		}
+	}
+}
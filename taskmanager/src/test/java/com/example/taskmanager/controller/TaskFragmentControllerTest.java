@@ -0,0 +1,166 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.service.TaskManagerUserDetails;
+import com.example.taskmanager.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that task actions sent as fragment requests are answered with the fragments of the page
+ * that changed, not with a redirect or a whole page.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskFragmentControllerTest {
+
+	private static final String USERNAME = "fragmentUser";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = testUsers.create(USERNAME);
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void bulkActionsAreAnsweredWithTheChangedRowsOnly() throws Exception {
+		int first = newTask("First").getId();
+		int second = newTask("Second").getId();
+
+		// The pending filter no longer shows a completed task, so its row is taken off the page
+		mockMvc.perform(patch("/task/update-status")
+						.param("selectedItems", String.valueOf(first))
+						.param("taskStatus", "true")
+						.param("status", "PENDING")
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("data-swap=\"task-" + first + "\""), not(containsString("<html")))));
+
+		mockMvc.perform(patch("/task/update-status")
+						.param("selectedItems", String.valueOf(second))
+						.param("taskStatus", "false")
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("<td id=\"task-" + second + "-status\">Pending</td>")));
+
+		mockMvc.perform(delete("/task/delete-tasks")
+						.param("selectedItems", String.valueOf(second))
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("1 selected task(s) successfully deleted."),
+						containsString("data-swap=\"task-" + second + "\""))));
+	}
+
+	@Test
+	void bulkActionsOnlyAnswerWithTheRowsOfTheUsersTasks() throws Exception {
+		int own = newTask("Own").getId();
+		int othersTask = taskService.createTask(WebTaskDTO.builder()
+				.taskName("Someone else's")
+				.startDate(LocalDate.now())
+				.build(), testUsers.create("fragmentOther").getId()).getId();
+
+		mockMvc.perform(patch("/task/update-status")
+						.param("selectedItems", String.valueOf(own), String.valueOf(othersTask))
+						.param("taskStatus", "true")
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("id=\"task-" + own + "-status\""),
+						not(containsString("task-" + othersTask)))));
+
+		mockMvc.perform(delete("/task/delete-tasks")
+						.param("selectedItems", String.valueOf(own), String.valueOf(othersTask))
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("1 selected task(s) successfully deleted."),
+						containsString("data-swap=\"task-" + own + "\""), not(containsString("task-" + othersTask)))));
+	}
+
+	@Test
+	void createdTasksAreConfirmedAboveAnEmptiedForm() throws Exception {
+		mockMvc.perform(post("/task/create")
+						.param("taskName", "Fragment task")
+						.param("startDate", LocalDate.now().toString())
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asOwner()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("id=\"task-form\""),
+						containsString("Task created successfully!"), not(containsString("Fragment task")))));
+
+		mockMvc.perform(post("/admin/create-user-task/" + USERNAME)
+						.param("taskName", "Assigned task")
+						.param("startDate", LocalDate.now().toString())
+						.header(TaskController.FRAGMENT_REQUEST_HEADER, "true")
+						.with(asAdmin()).with(csrf()))
+				.andExpect(status().isOk())
+				.andExpect(content().string(allOf(containsString("id=\"task-form\""),
+						containsString("Task successfully created for " + USERNAME), not(containsString("Assigned task")))));
+	}
+
+	/**
+	 * Creates a pending task owned by the test user.
+	 */
+	private TaskDTO newTask(String taskName) {
+		return taskService.createTask(WebTaskDTO.builder()
+				.taskName(taskName)
+				.startDate(LocalDate.now())
+				.build(), owner.getId());
+	}
+
+	/**
+	 * Authenticates a request as the test user, with the principal a login would produce.
+	 */
+	private RequestPostProcessor asOwner() {
+		return user(new TaskManagerUserDetails(owner.getId(), USERNAME, "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+	}
+
+	/**
+	 * Authenticates a request as an admin who is not the test user.
+	 */
+	private RequestPostProcessor asAdmin() {
+		return user(new TaskManagerUserDetails(0, "fragmentAdmin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+	}
+}
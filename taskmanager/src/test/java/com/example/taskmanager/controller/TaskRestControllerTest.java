@@ -0,0 +1,155 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.UserRepository;
+import com.example.taskmanager.service.CustomUserDetailsService;
+import com.example.taskmanager.service.TaskVersionTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the task API's authentication, sparse listings, bulk writes and conditional requests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskRestControllerTest {
+
+	private static final String USERNAME = "apiUser";
+	private static final String PASSWORD = "password";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private TaskVersionTracker taskVersionTracker;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			testUsers.createWithPassword(USERNAME, PASSWORD, testUsers.createRole("ROLE_USER"));
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+		userDetailsService.evictUser(USERNAME);
+	}
+
+	@Test
+	void requestsWithoutCredentialsAreRejected() throws Exception {
+		mockMvc.perform(get("/api/v1/tasks"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void bulkWritesAreListedSparselyAndTaggedWithTheTasksVersion() throws Exception {
+		LocalDate today = LocalDate.now();
+		String body = "[{\"taskName\":\"First\",\"startDate\":\"" + today + "\",\"dueDate\":\"" + today.plusDays(1) + "\"},"
+				+ "{\"taskName\":\"Second\",\"startDate\":\"" + today + "\",\"taskStatus\":true}]";
+
+		String createdETag = mockMvc.perform(post("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v1/tasks").param("status", "PENDING").param("fields", "taskName,id")
+						.with(httpBasic(USERNAME, PASSWORD)))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, createdETag))
+				.andExpect(jsonPath("$.tasks", hasSize(1)))
+				.andExpect(jsonPath("$.tasks[0].taskName").value("First"))
+				.andExpect(jsonPath("$.tasks[0].dueDate").doesNotExist());
+
+		mockMvc.perform(get("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.header(HttpHeaders.IF_NONE_MATCH, createdETag))
+				.andExpect(status().isNotModified());
+
+		int firstId = taskRepository.findAll().iterator().next().getId();
+		String updatedETag = mockMvc.perform(patch("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.header(HttpHeaders.IF_MATCH, createdETag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + firstId + "],\"taskStatus\":true}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.updated").value(1))
+				.andExpect(header().string(HttpHeaders.ETAG, not(createdETag)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// A client still holding the ETag from before the update must not delete blindly
+		mockMvc.perform(delete("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.header(HttpHeaders.IF_MATCH, createdETag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + firstId + "]}"))
+				.andExpect(status().isPreconditionFailed());
+
+		mockMvc.perform(delete("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.header(HttpHeaders.IF_MATCH, updatedETag)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + firstId + "]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted").value(1));
+	}
+
+	@Test
+	void aTagMatchedByOneWriteIsRefusedToTheNext() {
+		int userId = userRepository.findByUsername(USERNAME).getId();
+		String eTag = taskVersionTracker.getETag(userId);
+
+		// The first write claims the version before it starts, so a second one sent with the same tag
+		// is refused even while the first is still running
+		assertTrue(taskVersionTracker.compareAndIncrement(userId, "\"stale\", " + eTag));
+		assertFalse(taskVersionTracker.compareAndIncrement(userId, eTag));
+		assertTrue(taskVersionTracker.compareAndIncrement(userId, "*"));
+	}
+
+	@Test
+	void invalidTasksAndUnknownFieldsAreRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.contentType(MediaType.APPLICATION_JSON).content("[{\"taskName\":\"\"}]"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(post("/api/v1/tasks").with(httpBasic(USERNAME, PASSWORD))
+						.contentType(MediaType.APPLICATION_JSON).content("[null]"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/v1/tasks").param("fields", "user").with(httpBasic(USERNAME, PASSWORD)))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,149 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.config.CalibratedBCryptPasswordEncoder;
+import com.example.taskmanager.dto.WebUserDTO;
+import com.example.taskmanager.entity.Role;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that login details are served from the cache and evicted when the user they belong to changes,
+ * and that logins re-hash passwords stored with an outdated work factor.
+ */
+@SpringBootTest
+class CustomUserDetailsServiceTest {
+
+	private static final String USERNAME = "detailsUser";
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private AuthenticationManager authenticationManager;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private Role adminRole;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Role userRole = testUsers.createRole("ROLE_USER");
+			adminRole = testUsers.createRole("ROLE_ADMIN");
+
+			testUsers.createWithPassword(USERNAME, "password", userRole);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+		userDetailsService.evictUser(USERNAME);
+	}
+
+	@Test
+	void repeatedLoadsAreServedFromTheCache() {
+		userDetailsService.loadUserByUsername(USERNAME);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		UserDetails details = userDetailsService.loadUserByUsername(USERNAME);
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(List.of("ROLE_USER"), authorityNames(details));
+
+		// Spring Security erases the password of the details it authenticates
+		((org.springframework.security.core.userdetails.User) details).eraseCredentials();
+		assertNotNull(userDetailsService.loadUserByUsername(USERNAME).getPassword());
+	}
+
+	@Test
+	void passwordAndRoleChangesEvictTheCachedDetails() {
+		userDetailsService.loadUserByUsername(USERNAME);
+
+		userService.updatePassword(WebUserDTO.builder().username(USERNAME).password("new-password").build()).join();
+		assertTrue(passwordEncoder.matches("new-password", userDetailsService.loadUserByUsername(USERNAME).getPassword()));
+
+		userService.updateUser(WebUserDTO.builder().username(USERNAME).roles(Set.of(adminRole)).build());
+		assertEquals(List.of("ROLE_ADMIN"), authorityNames(userDetailsService.loadUserByUsername(USERNAME)));
+	}
+
+	@Test
+	void passwordChangesEvictDetailsLoadedWithAnotherCasing() {
+		String typedUsername = USERNAME.toUpperCase(Locale.ROOT);
+		userDetailsService.loadUserByUsername(typedUsername);
+
+		userService.updatePassword(WebUserDTO.builder().username(USERNAME).password("new-password").build()).join();
+
+		assertTrue(passwordEncoder.matches("new-password", userDetailsService.loadUserByUsername(typedUsername).getPassword()));
+	}
+
+	@Test
+	void deletedUsersCanNoLongerBeLoaded() {
+		userDetailsService.loadUserByUsername(USERNAME);
+
+		userService.deleteUser(userRepository.findByUsername(USERNAME).getId());
+
+		assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(USERNAME));
+	}
+
+	@Test
+	void loginRehashesPasswordsStoredWithAnotherWorkFactor() {
+		transactionTemplate.executeWithoutResult(status ->
+				userRepository.findByUsername(USERNAME).setPassword(new BCryptPasswordEncoder(4).encode("password")));
+		userDetailsService.evictUser(USERNAME);
+
+		authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, "password"));
+
+		String rehashed = userRepository.findByUsername(USERNAME).getPassword();
+		assertTrue(rehashed.startsWith("$2a$" + CalibratedBCryptPasswordEncoder.MIN_STRENGTH + "$"));
+		assertEquals(rehashed, userDetailsService.loadUserByUsername(USERNAME).getPassword());
+	}
+
+	private List<String> authorityNames(UserDetails details) {
+		return details.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+	}
+}
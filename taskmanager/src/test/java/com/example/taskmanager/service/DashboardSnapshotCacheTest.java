@@ -0,0 +1,89 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.DashboardSnapshotDTO;
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskPageDTO;
+import com.example.taskmanager.dto.TaskStatsDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that dashboard snapshots decode to what was cached, stay within their byte budget and are
+ * not served once the user's tasks have changed.
+ */
+class DashboardSnapshotCacheTest {
+
+	private final TaskVersionTracker taskVersionTracker = new TaskVersionTracker();
+
+	@Test
+	void snapshotsDecodeToTheCachedPage() {
+		DashboardSnapshotCache cache = new DashboardSnapshotCache(taskVersionTracker, DataSize.ofKilobytes(64));
+		DashboardSnapshotDTO loaded = snapshot(25, "Tâche ✓ ");
+		loaded.getPage().setNextCursor("2030-01-01:77");
+
+		cache.get(1, TaskStatusFilter.PENDING, null, () -> loaded);
+		DashboardSnapshotDTO cached = cache.get(1, TaskStatusFilter.PENDING, null, () -> {
+			throw new AssertionError("a current snapshot must not be loaded again");
+		});
+
+		assertEquals(loaded.getTaskStats(), cached.getTaskStats());
+		assertEquals(loaded.getPage().getNextCursor(), cached.getPage().getNextCursor());
+		assertEquals(loaded.getPage().getTasks(), new ArrayList<>(cached.getPage().getTasks()));
+	}
+
+	@Test
+	void leastRecentlyShownSnapshotsAreEvictedToStayWithinTheBudget() {
+		DashboardSnapshotCache cache = new DashboardSnapshotCache(taskVersionTracker, DataSize.ofKilobytes(32));
+		AtomicInteger loads = new AtomicInteger();
+
+		for (int userId = 1; userId <= 100; userId++) {
+			cache.get(userId, TaskStatusFilter.PENDING, null, () -> {
+				loads.incrementAndGet();
+				return snapshot(25, "Task ");
+			});
+			// The first user keeps being shown, so it stays cached
+			cache.get(1, TaskStatusFilter.PENDING, null, () -> {
+				loads.incrementAndGet();
+				return snapshot(25, "Task ");
+			});
+			assertTrue(cache.getUsedBytes() <= DataSize.ofKilobytes(32).toBytes(), "used " + cache.getUsedBytes());
+		}
+
+		assertEquals(100, loads.get());
+		assertTrue(cache.getSnapshotCount() < 100, "older snapshots must have been evicted");
+	}
+
+	@Test
+	void changedTasksMakeTheSnapshotStale() {
+		DashboardSnapshotCache cache = new DashboardSnapshotCache(taskVersionTracker, DataSize.ofKilobytes(64));
+		cache.get(1, TaskStatusFilter.ALL, null, () -> snapshot(3, "Old "));
+
+		taskVersionTracker.onTaskChanged(new TaskChangedEvent(1));
+		cache.onTaskChanged(new TaskChangedEvent(1));
+
+		assertEquals(0, cache.getSnapshotCount());
+		assertEquals(0, cache.getUsedBytes());
+		assertEquals("New 0", cache.get(1, TaskStatusFilter.ALL, null, () -> snapshot(3, "New "))
+				.getPage().getTasks().get(0).getTaskName());
+	}
+
+	private DashboardSnapshotDTO snapshot(int taskCount, String namePrefix) {
+		List<TaskDTO> tasks = new ArrayList<>();
+		for (int i = 0; i < taskCount; i++) {
+			tasks.add(new TaskDTO(i, namePrefix + i, LocalDate.now().minusDays(i),
+					i % 3 == 0 ? null : LocalDate.now().plusDays(i), i % 2 == 0));
+		}
+		return DashboardSnapshotDTO.builder()
+				.page(new TaskPageDTO(tasks, null))
+				.taskStats(new TaskStatsDTO(taskCount, 0, 1))
+				.build();
+	}
+}
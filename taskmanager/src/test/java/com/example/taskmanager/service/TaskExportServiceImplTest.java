@@ -0,0 +1,97 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskImportResultDTO;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that exports stream every task from a single query in files the import reads back.
+ */
+@SpringBootTest
+class TaskExportServiceImplTest {
+
+	private static final int ROW_COUNT = 2_345;
+
+	@Autowired
+	private TaskExportService taskExportService;
+
+	@Autowired
+	private TaskImportService taskImportService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+
+	private User copyOwner;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		owner = testUsers.create("exportOwner");
+		copyOwner = testUsers.create("exportCopyOwner");
+
+		LocalDate today = LocalDate.now();
+		StringBuilder csv = new StringBuilder("taskName,startDate,dueDate,taskStatus\n");
+		for (int i = 0; i < ROW_COUNT; i++) {
+			csv.append("\"Task, \"\"").append(i).append("\"\"\",").append(today).append(',')
+					.append(i % 2 == 0 ? today.plusDays(1).toString() : "").append(',').append(i % 3 == 0).append('\n');
+		}
+		taskImportService.importTasks(stream(csv.toString()), TaskImportFormat.CSV, owner.getId());
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void exportsAreReadFromOneQueryAndImportAgain() throws Exception {
+		for (TaskImportFormat format : TaskImportFormat.values()) {
+			Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+			statistics.clear();
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			long exported = taskExportService.exportTasks(owner.getId(), format, output);
+
+			assertEquals(ROW_COUNT, exported, format + " rows exported");
+			assertEquals(1, statistics.getPrepareStatementCount(), format + " statements prepared");
+			assertTrue(output.toString(StandardCharsets.UTF_8).contains("exportOwner"), "rows carry their owner");
+
+			TaskImportResultDTO reimported = taskImportService.importTasks(
+					new ByteArrayInputStream(output.toByteArray()), format, copyOwner.getId());
+
+			assertEquals(ROW_COUNT, reimported.getImportedCount(), format + " rows imported again");
+			assertEquals(0, reimported.getFailedCount(), format + " rows rejected");
+		}
+
+		assertEquals(taskRepository.findTaskDTOsByUserId(owner.getId()).stream().map(task -> task.getTaskName() + task.getDueDate()).toList(),
+				taskRepository.findTaskDTOsByUserId(copyOwner.getId()).stream().limit(ROW_COUNT).map(task -> task.getTaskName() + task.getDueDate()).toList());
+	}
+
+	private ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskImportResultDTO;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that imports write valid rows across several batches and report the rows they reject.
+ */
+@SpringBootTest
+class TaskImportServiceImplTest {
+
+	private static final int ROW_COUNT = 1_234;
+
+	@Autowired
+	private TaskImportService taskImportService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = testUsers.create("importOwner");
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void csvImportWritesValidRowsAndReportsRejectedOnes() throws Exception {
+		LocalDate today = LocalDate.now();
+		StringBuilder csv = new StringBuilder("taskName,startDate,dueDate,taskStatus\n");
+		for (int i = 0; i < ROW_COUNT; i++) {
+			csv.append("\"Task, ").append(i).append("\",").append(today).append(',').append(today.plusDays(1)).append(",false\n");
+		}
+		csv.append(",").append(today).append(",,\n");
+		csv.append("Bad date,yesterday,,\n");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		TaskImportResultDTO result = taskImportService.importTasks(stream(csv.toString()), TaskImportFormat.CSV, owner.getId());
+
+		// Inserts are sent in JDBC batches, with ids allocated a block at a time
+		assertTrue(statistics.getPrepareStatementCount() < ROW_COUNT / 10,
+				statistics.getPrepareStatementCount() + " statements prepared");
+
+		assertEquals(ROW_COUNT, result.getImportedCount());
+		assertEquals(2, result.getFailedCount());
+		assertTrue(result.getErrors().get(0).startsWith("Row " + (ROW_COUNT + 2) + ": "));
+		assertEquals(ROW_COUNT, taskRepository.findTasksByUserId(owner.getId()).size());
+	}
+
+	@Test
+	void ndjsonImportReadsOneTaskPerLine() throws Exception {
+		String ndjson = "{\"taskName\":\"First\",\"startDate\":\"" + LocalDate.now() + "\",\"taskStatus\":true}\n"
+				+ "\n"
+				+ "{\"taskName\":\"Second\",\"startDate\":\"" + LocalDate.now() + "\"}\n"
+				+ "{not json}\n";
+
+		TaskImportResultDTO result = taskImportService.importTasks(stream(ndjson), TaskImportFormat.NDJSON, owner.getId());
+
+		assertEquals(2, result.getImportedCount());
+		assertEquals(1, result.getFailedCount());
+		assertTrue(result.getErrors().get(0).startsWith("Row 4: "));
+	}
+
+	private ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,230 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that bulk status transitions stay correct and cheap when many submits run in parallel, and
+ * that writes to different users' tasks do not wait for each other.
+ */
+@SpringBootTest
+class TaskServiceImplConcurrencyTest {
+
+	private static final int TASK_COUNT = 200;
+	private static final int THREADS = 8;
+	private static final int SUBMITS_PER_THREAD = 25;
+
+	/**
+	 * Statements prepared by one setTaskStatus call for at most 500 tasks: a change sequence number is
+	 * drawn and read, the user's task counts are locked, the user's tasks among the IDs are read and
+	 * counted by status and due date before the UPDATE and the user's task counts adjusted after it.
+	 */
+	private static final int STATEMENTS_PER_SUBMIT = 7;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TaskStatsService taskStatsService;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+	private User otherUser;
+	private List<Integer> taskIds;
+	private List<Integer> otherUsersTaskIds;
+
+	@BeforeEach
+	void setUp() {
+		owner = testUsers.create("bulkOwner");
+		otherUser = testUsers.create("bulkOther");
+
+		taskIds = saveTasks(owner, TASK_COUNT);
+		otherUsersTaskIds = saveTasks(otherUser, 10);
+
+		// The tasks were saved directly, so count them as the startup recount would
+		taskStatsService.reconcile();
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void setTaskStatusUsesAFixedNumberOfStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		int updated = taskService.setTaskStatus(taskIds, owner.getId(), true).size();
+
+		assertEquals(TASK_COUNT, updated);
+		assertEquals(STATEMENTS_PER_SUBMIT, statistics.getPrepareStatementCount());
+		assertEquals(TASK_COUNT, taskStatsService.getTaskStats(owner.getId()).getCompletedCount());
+	}
+
+	@Test
+	void parallelSubmitsWithOpposingTargetsDoNotLoseUpdates() throws Exception {
+		List<Integer> even = new ArrayList<>();
+		List<Integer> odd = new ArrayList<>();
+		for (int i = 0; i < taskIds.size(); i++) {
+			(i % 2 == 0 ? even : odd).add(taskIds.get(i));
+		}
+
+		// Half of the threads keep completing the even tasks while the other half keep
+		// reopening the odd ones, all interleaved on the same rows' pages and index entries.
+		List<Callable<Integer>> submits = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			boolean completeEven = thread % 2 == 0;
+			submits.add(() -> {
+				int matched = 0;
+				for (int i = 0; i < SUBMITS_PER_THREAD; i++) {
+					matched += completeEven
+							? taskService.setTaskStatus(even, owner.getId(), true).size()
+							: taskService.setTaskStatus(odd, owner.getId(), false).size();
+				}
+				return matched;
+			});
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			int matched = 0;
+			for (Future<Integer> result : executor.invokeAll(submits, 60, TimeUnit.SECONDS)) {
+				matched += result.get();
+			}
+			assertEquals(THREADS * SUBMITS_PER_THREAD * (TASK_COUNT / 2), matched);
+			// Contention makes submits wait for each other's locks, never repeat or add statements
+			assertEquals((long) THREADS * SUBMITS_PER_THREAD * STATEMENTS_PER_SUBMIT, statistics.getPrepareStatementCount());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (Task task : taskRepository.findAllById(even)) {
+			assertTrue(task.isTaskStatus(), "even task " + task.getId() + " should be completed");
+		}
+		for (Task task : taskRepository.findAllById(odd)) {
+			assertFalse(task.isTaskStatus(), "odd task " + task.getId() + " should be pending");
+		}
+		assertEquals(even.size(), taskStatsService.getTaskStats(owner.getId()).getCompletedCount());
+		assertEquals(odd.size(), taskStatsService.getTaskStats(owner.getId()).getPendingCount());
+	}
+
+	@Test
+	void setTaskStatusIgnoresTasksOfOtherUsers() {
+		List<Integer> mixed = new ArrayList<>(taskIds);
+		mixed.addAll(otherUsersTaskIds);
+
+		List<Integer> updated = taskService.setTaskStatus(mixed, owner.getId(), true);
+
+		assertEquals(Set.copyOf(taskIds), Set.copyOf(updated));
+		for (Task task : taskRepository.findAllById(otherUsersTaskIds)) {
+			assertFalse(task.isTaskStatus());
+		}
+	}
+
+	@Test
+	void writesOfDifferentUsersDoNotWaitForEachOther() throws Exception {
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			// The owner's bulk change keeps its transaction, and the locks it took, open until released
+			Future<?> ownersWrite = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				taskService.setTaskStatus(taskIds, owner.getId(), true);
+				written.countDown();
+				awaitQuietly(release);
+			}));
+			assertTrue(written.await(10, TimeUnit.SECONDS), "the owner's change should have been made");
+
+			// Another user's writes go through meanwhile instead of waiting for a lock or timing out
+			assertEquals(Set.copyOf(otherUsersTaskIds), Set.copyOf(taskService.setTaskStatus(otherUsersTaskIds, otherUser.getId(), true)));
+			taskService.deleteTask(otherUsersTaskIds.get(0));
+			assertFalse(ownersWrite.isDone());
+
+			release.countDown();
+			ownersWrite.get(10, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+
+		assertEquals(TASK_COUNT, taskStatsService.getTaskStats(owner.getId()).getCompletedCount());
+		assertEquals(otherUsersTaskIds.size() - 1, taskStatsService.getTaskStats(otherUser.getId()).getCompletedCount());
+	}
+
+	/**
+	 * Waits for a latch to be counted down, giving up after ten seconds.
+	 */
+	private void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private List<Integer> saveTasks(User detachedUser, int count) {
+		return transactionTemplate.execute(status -> {
+			User user = userRepository.findUserById(detachedUser.getId());
+			List<Task> tasks = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				tasks.add(Task.builder()
+						.taskName("Task " + i)
+						.startDate(LocalDate.now())
+						.dueDate(LocalDate.now().plusDays(i + 1))
+						.user(user)
+						.taskStatus(false)
+						.build());
+			}
+
+			List<Integer> ids = new ArrayList<>();
+			taskRepository.saveAll(tasks).forEach(task -> ids.add(task.getId()));
+			return ids;
+		});
+	}
+}
@@ -0,0 +1,113 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskStatsDTO;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.entity.UserTaskStats;
+import com.example.taskmanager.repository.UserTaskStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies that a user's stored task counts follow single-task changes, and that the nightly recount
+ * corrects counts that have drifted from the tasks.
+ */
+@SpringBootTest
+class TaskStatsServiceImplTest {
+
+	@Autowired
+	private TaskStatsService taskStatsService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private UserTaskStatsRepository userTaskStatsRepository;
+
+	@Autowired
+	private TaskVersionTracker taskVersionTracker;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = testUsers.create("statsOwner");
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void countsFollowCreatedToggledAndDeletedTasks() {
+		LocalDate today = LocalDate.now();
+
+		// The first task stores the user's counts, the others increment them
+		TaskDTO overdue = taskService.createTask(newTask("Overdue", today.minusDays(1)), owner.getId());
+		TaskDTO dueTomorrow = taskService.createTask(newTask("Due tomorrow", today.plusDays(1)), owner.getId());
+		taskService.createTask(newTask("No due date", null), owner.getId());
+		assertEquals(new TaskStatsDTO(3, 0, 1), taskStatsService.getTaskStats(owner.getId()));
+
+		taskService.toggleTaskStatus(overdue.getId());
+		assertEquals(new TaskStatsDTO(2, 1, 0), taskStatsService.getTaskStats(owner.getId()));
+
+		taskService.deleteTask(dueTomorrow.getId());
+		assertEquals(new TaskStatsDTO(1, 1, 0), taskStatsService.getTaskStats(owner.getId()));
+	}
+
+	@Test
+	void bulkChangesAdjustCountsByTheTasksTheyTouch() {
+		LocalDate today = LocalDate.now();
+		TaskDTO overdue = taskService.createTask(newTask("Overdue", today.minusDays(1)), owner.getId());
+		TaskDTO dueTomorrow = taskService.createTask(newTask("Due tomorrow", today.plusDays(1)), owner.getId());
+		TaskDTO noDueDate = taskService.createTask(newTask("No due date", null), owner.getId());
+
+		taskService.setTaskStatus(List.of(overdue.getId(), dueTomorrow.getId()), owner.getId(), true);
+		assertEquals(new TaskStatsDTO(1, 2, 0), taskStatsService.getTaskStats(owner.getId()));
+
+		// Tasks that already have the status are not moved again
+		taskService.setTaskStatus(List.of(overdue.getId(), noDueDate.getId()), owner.getId(), false);
+		assertEquals(new TaskStatsDTO(2, 1, 1), taskStatsService.getTaskStats(owner.getId()));
+
+		taskService.deleteTasks(List.of(overdue.getId(), dueTomorrow.getId(), -1), owner.getId());
+		assertEquals(new TaskStatsDTO(1, 0, 0), taskStatsService.getTaskStats(owner.getId()));
+	}
+
+	@Test
+	void reconcileRecountsDriftedCounts() {
+		taskService.createTask(newTask("Overdue", LocalDate.now().minusDays(1)), owner.getId());
+		userTaskStatsRepository.save(new UserTaskStats(owner.getId(), 9, 9, 9, 1));
+		long version = taskVersionTracker.getVersion(owner.getId());
+
+		taskStatsService.reconcile();
+
+		assertEquals(new TaskStatsDTO(1, 0, 1), taskStatsService.getTaskStats(owner.getId()));
+		// The corrected counts are announced, so cached pages showing the drifted ones are refreshed
+		assertEquals(version + 1, taskVersionTracker.getVersion(owner.getId()));
+
+		taskStatsService.reconcile();
+		assertEquals(version + 1, taskVersionTracker.getVersion(owner.getId()));
+	}
+
+	private WebTaskDTO newTask(String name, LocalDate dueDate) {
+		return WebTaskDTO.builder()
+				.taskName(name)
+				.startDate(LocalDate.now().minusDays(7))
+				.dueDate(dueDate)
+				.build();
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.TaskDTO;
+import com.example.taskmanager.dto.TaskSyncDTO;
+import com.example.taskmanager.dto.WebTaskDTO;
+import com.example.taskmanager.entity.TaskTombstone;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that a sync reports exactly the tasks changed and deleted since its token, that a full sync
+ * is paged without missing changes made while it runs, and that old tombstones are purged.
+ */
+@SpringBootTest
+class TaskSyncServiceImplTest {
+
+	@Autowired
+	private TaskSyncService taskSyncService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TaskTombstoneRepository taskTombstoneRepository;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	private User owner;
+	private List<TaskDTO> tasks;
+
+	@BeforeEach
+	void setUp() {
+		owner = testUsers.create("syncOwner");
+
+		tasks = taskService.createTasks(List.of(newTask("First"), newTask("Second"), newTask("Third")), owner.getId());
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void syncReturnsOnlyTheTasksChangedOrDeletedSinceTheToken() {
+		TaskSyncDTO fullSync = taskSyncService.getChanges(owner.getId(), null, null);
+		assertEquals(3, fullSync.getChanged().size());
+		assertTrue(taskSyncService.getChanges(owner.getId(), fullSync.getToken(), null).getChanged().isEmpty());
+
+		String token = fullSync.getToken();
+		taskService.setTaskStatus(List.of(tasks.get(0).getId()), owner.getId(), true);
+		taskService.deleteTasks(List.of(tasks.get(1).getId()), owner.getId());
+
+		TaskSyncDTO delta = taskSyncService.getChanges(owner.getId(), token, null);
+
+		assertEquals(List.of(tasks.get(0).getId()), delta.getChanged().stream().map(TaskDTO::getId).toList());
+		assertEquals(List.of(tasks.get(1).getId()), delta.getDeleted());
+		assertFalse(delta.getToken().isBlank());
+	}
+
+	@Test
+	void fullSyncIsPagedAndOnlyItsLastPageCarriesTheToken() {
+		List<WebTaskDTO> moreTasks = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			moreTasks.add(newTask("More " + i));
+		}
+		taskService.createTasks(moreTasks, owner.getId());
+
+		TaskSyncDTO firstPage = taskSyncService.getChanges(owner.getId(), null, null);
+		assertEquals(25, firstPage.getChanged().size());
+		assertNull(firstPage.getToken());
+
+		// A task on the page already read changes before the last page is read
+		int changedTaskId = firstPage.getChanged().get(0).getId();
+		taskService.setTaskStatus(List.of(changedTaskId), owner.getId(), true);
+
+		TaskSyncDTO lastPage = taskSyncService.getChanges(owner.getId(), null, firstPage.getNextCursor());
+		assertEquals(8, lastPage.getChanged().size());
+		assertNull(lastPage.getNextCursor());
+
+		TaskSyncDTO delta = taskSyncService.getChanges(owner.getId(), lastPage.getToken(), null);
+		assertEquals(List.of(changedTaskId), delta.getChanged().stream().map(TaskDTO::getId).toList());
+
+		assertThrows(IllegalArgumentException.class, () -> taskSyncService.getChanges(owner.getId(), null, "~2024-01-01_1"));
+	}
+
+	@Test
+	void expiredTokensAndOldTombstonesAreRejectedAndPurged() {
+		String expiredToken = "1." + Instant.now().minus(Duration.ofDays(31)).toEpochMilli();
+		assertThrows(SyncTokenExpiredException.class, () -> taskSyncService.getChanges(owner.getId(), expiredToken, null));
+		String timestampToken = Long.toString(Instant.now().toEpochMilli());
+		assertThrows(SyncTokenExpiredException.class, () -> taskSyncService.getChanges(owner.getId(), timestampToken, null));
+		assertThrows(IllegalArgumentException.class, () -> taskSyncService.getChanges(owner.getId(), "yesterday", null));
+
+		taskTombstoneRepository.save(TaskTombstone.builder()
+				.taskId(-1)
+				.userId(owner.getId())
+				.deletedAt(Instant.now().minus(Duration.ofDays(40)))
+				.build());
+		taskService.deleteTasks(List.of(tasks.get(2).getId()), owner.getId());
+
+		assertEquals(1, taskSyncService.purgeTombstones());
+		assertEquals(1, taskTombstoneRepository.count());
+	}
+
+	private WebTaskDTO newTask(String name) {
+		return WebTaskDTO.builder()
+				.taskName(name)
+				.startDate(LocalDate.now())
+				.dueDate(LocalDate.now().plusDays(1))
+				.build();
+	}
+}
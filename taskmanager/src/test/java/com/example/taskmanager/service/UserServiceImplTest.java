@@ -0,0 +1,168 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TestUsers;
+import com.example.taskmanager.dto.AdminUserPageDTO;
+import com.example.taskmanager.dto.AdminUserSummaryDTO;
+import com.example.taskmanager.dto.WebUserDTO;
+import com.example.taskmanager.entity.Role;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.User;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the admin user listing: task counts, role names, paging and prefix search, that cached
+ * users are replaced when they are updated, and password changes and resets.
+ */
+@SpringBootTest
+class UserServiceImplTest {
+
+	private static final int USER_COUNT = 30;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private TaskStatsService taskStatsService;
+
+	@Autowired
+	private TestUsers testUsers;
+
+	@BeforeEach
+	void setUp() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Role role = testUsers.createRole("ROLE_USER");
+
+			for (int i = 0; i < USER_COUNT; i++) {
+				User user = testUsers.create(String.format("summary%02d", i), role);
+
+				List<Task> tasks = new ArrayList<>();
+				// i completed tasks, one pending task and one overdue task per user
+				for (int t = 0; t < i; t++) {
+					tasks.add(task(user, LocalDate.now().plusDays(1), true));
+				}
+				tasks.add(task(user, LocalDate.now().plusDays(1), false));
+				tasks.add(task(user, LocalDate.now().minusDays(1), false));
+				taskRepository.saveAll(tasks);
+			}
+		});
+
+		// The tasks were saved directly, so count them as the startup recount would
+		taskStatsService.reconcile();
+	}
+
+	@AfterEach
+	void tearDown() {
+		testUsers.deleteAll();
+	}
+
+	@Test
+	void adminSummaryPageCountsTasksAndPagesWithTwoQueries() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		AdminUserPageDTO firstPage = userService.getAdminUserSummaryPage(null, null);
+
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(25, firstPage.getUsers().size());
+		assertNotNull(firstPage.getNextCursor());
+
+		AdminUserSummaryDTO summary = firstPage.getUsers().get(3);
+		assertEquals("summary03", summary.getUsername());
+		assertEquals(List.of("ROLE_USER"), summary.getRoleNames());
+		assertEquals(3, summary.getCompletedCount());
+		assertEquals(2, summary.getPendingCount());
+		assertEquals(1, summary.getOverdueCount());
+
+		AdminUserPageDTO secondPage = userService.getAdminUserSummaryPage(null, firstPage.getNextCursor());
+		assertEquals(USER_COUNT - 25, secondPage.getUsers().size());
+		assertNull(secondPage.getNextCursor());
+	}
+
+	@Test
+	void adminSummaryPageMatchesUsernamePrefixLiterally() {
+		assertEquals(10, userService.getAdminUserSummaryPage("summary1", null).getUsers().size());
+		assertEquals(0, userService.getAdminUserSummaryPage("summary_", null).getUsers().size());
+	}
+
+	@Test
+	void passwordUpdateReplacesTheCachedUser() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String oldHash = userRepository.findByUsername("summary00").getPassword();
+
+		statistics.clear();
+		assertEquals(oldHash, userRepository.findByUsername("summary00").getPassword());
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		userService.updatePassword(WebUserDTO.builder().username("summary00").password("new-password").build()).join();
+
+		assertNotEquals(oldHash, userRepository.findByUsername("summary00").getPassword());
+	}
+
+	@Test
+	void passwordUpdateRejectsTheCurrentPassword() {
+		WebUserDTO webUserDTO = WebUserDTO.builder().username("summary00").password("new-password").build();
+		userService.updatePassword(webUserDTO).join();
+
+		CompletionException e = assertThrows(CompletionException.class, () -> userService.updatePassword(webUserDTO).join());
+		assertInstanceOf(IllegalArgumentException.class, e.getCause());
+	}
+
+	@Test
+	void resetPasswordsGivesEachSelectedUserANewPassword() {
+		Map<String, String> temporaryPasswords = userService.resetPasswords(List.of("summary01", "missing", "summary02"));
+
+		assertEquals(List.of("summary01", "summary02"), List.copyOf(temporaryPasswords.keySet()));
+		temporaryPasswords.forEach((username, temporaryPassword) -> assertTrue(
+				passwordEncoder.matches(temporaryPassword, userRepository.findByUsername(username).getPassword())));
+	}
+
+	private Task task(User user, LocalDate dueDate, boolean taskStatus) {
+		return Task.builder()
+				.taskName("Task")
+				.startDate(LocalDate.now().minusDays(2))
+				.dueDate(dueDate)
+				.taskStatus(taskStatus)
+				.user(user)
+				.build();
+	}
+}